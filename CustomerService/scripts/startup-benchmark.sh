@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-successful-request of CustomerService: the time from launching the JVM (or native
+# executable) until the probe URL first answers with a 2xx status.
+#
+# Usage: scripts/startup-benchmark.sh [jar|cds|native] [runs]
+#   jar     plain fat jar           (mvn package)
+#   cds     AOT + CDS archive       (mvn -Pfast-startup package)
+#   native  GraalVM native image    (mvn -Pnative native:compile)
+#
+# PROBE_URL overrides the request that has to succeed, e.g. an API endpoint when MongoDB is available.
+set -euo pipefail
+
+MODE="${1:-jar}"
+RUNS="${2:-5}"
+PORT="${PORT:-8080}"
+PROBE_URL="${PROBE_URL:-http://localhost:${PORT}/actuator/health/liveness}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+
+cd "$(dirname "$0")/.."
+JAR="$(ls target/CustomerService-*.jar 2>/dev/null | grep -v '\.original$' | head -n 1 || true)"
+
+start_app() {
+  case "$MODE" in
+    jar)
+      java -jar "$JAR" --server.port="$PORT" ;;
+    cds)
+      (cd target/cds && exec java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+        -cp . org.springframework.boot.loader.launch.JarLauncher --server.port="$PORT") ;;
+    native)
+      target/CustomerService --server.port="$PORT" ;;
+    *)
+      echo "Unknown mode: $MODE" >&2
+      exit 2 ;;
+  esac
+}
+
+now_millis() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+  started=$(now_millis)
+  start_app > "target/startup-benchmark-${MODE}-${run}.log" 2>&1 &
+  pid=$!
+  elapsed=""
+  while kill -0 "$pid" 2>/dev/null; do
+    if curl -fs -o /dev/null "$PROBE_URL"; then
+      elapsed=$(( $(now_millis) - started ))
+      break
+    fi
+    if (( $(now_millis) - started > TIMEOUT_SECONDS * 1000 )); then
+      break
+    fi
+    sleep 0.02
+  done
+  pkill -P "$pid" 2>/dev/null || true
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  if [[ -z "$elapsed" ]]; then
+    echo "Run $run: no successful request, see target/startup-benchmark-${MODE}-${run}.log" >&2
+    exit 1
+  fi
+  echo "Run $run: first successful request after ${elapsed} ms"
+  results+=("$elapsed")
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "Mode $MODE over $RUNS runs: min ${sorted[0]} ms, median ${sorted[$(( RUNS / 2 ))]} ms, max ${sorted[$(( RUNS - 1 ))]} ms"
@@ -0,0 +1,30 @@
+package com.afrisol.CustomerService.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "customer.audit")
+public class CustomerAuditProperties {
+    /**
+     * Records held in memory while waiting to be written; further records spill to the spool directory.
+     */
+    private int queueCapacity = 10_000;
+    /**
+     * Records written to Mongo per insert.
+     */
+    private int batchSize = 500;
+    private Duration flushInterval = Duration.ofSeconds(1);
+    /**
+     * Time allowed for one batch insert before the batch is spooled to disk instead.
+     */
+    private Duration writeTimeout = Duration.ofSeconds(5);
+    private Path spoolDirectory = Path.of(System.getProperty("java.io.tmpdir"), "customer-audit-spool");
+    /**
+     * Spooled records are dropped, and counted, once the spool reaches this size.
+     */
+    private long maxSpoolBytes = 512L * 1024 * 1024;
+}
@@ -0,0 +1,138 @@
+package com.afrisol.CustomerService.audit;
+
+import com.afrisol.CustomerService.model.CustomerAuditRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Newline-delimited JSON files on local disk for audit records that did not fit in memory or could not be
+ * written to Mongo in time. Appends always go to the active file; a replay first seals it under a new name, so
+ * appending and replaying never touch the same file.
+ */
+@Slf4j
+class CustomerAuditSpool {
+
+    private static final String ACTIVE_FILE = "active.ndjson";
+    private static final String SEALED_SUFFIX = ".sealed.ndjson";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private long sizeBytes;
+
+    CustomerAuditSpool(Path directory, ObjectMapper objectMapper, long maxBytes) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                sizeBytes = files.mapToLong(CustomerAuditSpool::sizeOf).sum();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot use audit spool directory " + directory, e);
+        }
+    }
+
+    /**
+     * Appends the records to the active file, or returns {@code false} when the spool is full or cannot be
+     * written.
+     */
+    synchronized boolean append(List<CustomerAuditRecord> records) {
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (CustomerAuditRecord record : records) {
+                lines.append(objectMapper.writeValueAsString(record)).append('\n');
+            }
+            byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+            if (sizeBytes + bytes.length > maxBytes) {
+                return false;
+            }
+            Files.write(directory.resolve(ACTIVE_FILE), bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            sizeBytes += bytes.length;
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to spool {} audit records: {}", records.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Seals the active file, if any, and lists every sealed file, oldest first.
+     */
+    synchronized List<Path> sealAll() throws IOException {
+        Path active = directory.resolve(ACTIVE_FILE);
+        if (Files.exists(active) && Files.size(active) > 0) {
+            Files.move(active, directory.resolve(System.currentTimeMillis() + "-" + System.nanoTime() + SEALED_SUFFIX));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEALED_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Reads a sealed file back in batches of at most {@code batchSize} records.
+     */
+    Flux<List<CustomerAuditRecord>> read(Path file, int batchSize) {
+        return Flux.using(
+                        () -> Files.newBufferedReader(file, StandardCharsets.UTF_8),
+                        reader -> Flux.fromStream(reader.lines()),
+                        CustomerAuditSpool::closeQuietly)
+                .filter(line -> !line.isBlank())
+                .map(this::parse)
+                .buffer(batchSize)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    synchronized void delete(Path file) {
+        long size = sizeOf(file);
+        try {
+            Files.deleteIfExists(file);
+            sizeBytes -= size;
+        } catch (IOException e) {
+            log.error("Failed to delete replayed audit spool file {}: {}", file, e.getMessage());
+        }
+    }
+
+    synchronized long sizeBytes() {
+        return sizeBytes;
+    }
+
+    private CustomerAuditRecord parse(String line) {
+        try {
+            return objectMapper.readValue(line, CustomerAuditRecord.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            log.warn("Failed to close audit spool file: {}", e.getMessage());
+        }
+    }
+}
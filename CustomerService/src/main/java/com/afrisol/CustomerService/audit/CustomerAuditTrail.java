@@ -0,0 +1,12 @@
+package com.afrisol.CustomerService.audit;
+
+import com.afrisol.CustomerService.model.CustomerAuditRecord;
+
+/**
+ * Destination of customer change records. Implementations must not block or fail the caller: recording a
+ * change happens on the request path, after the change itself has been written.
+ */
+@FunctionalInterface
+public interface CustomerAuditTrail {
+    void record(CustomerAuditRecord record);
+}
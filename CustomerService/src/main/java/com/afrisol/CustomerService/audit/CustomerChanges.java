@@ -0,0 +1,87 @@
+package com.afrisol.CustomerService.audit;
+
+import com.afrisol.CustomerService.model.Address;
+import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.model.CustomerAuditAction;
+import com.afrisol.CustomerService.model.CustomerAuditRecord;
+import com.afrisol.CustomerService.model.CustomerFieldChange;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Builds audit records from the audited fields of a customer, captured as text before and after a change.
+ */
+public final class CustomerChanges {
+
+    private CustomerChanges() {
+    }
+
+    /**
+     * Audited fields of the customer as they are now. Take the snapshot before mutating the customer.
+     */
+    public static Map<String, String> snapshot(Customer customer) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("firstName", customer.getFirstName());
+        fields.put("lastName", customer.getLastName());
+        fields.put("email", customer.getEmail());
+        fields.put("phone", customer.getPhone());
+        Address address = customer.getAddress();
+        fields.put("address.street", address == null ? null : address.getStreet());
+        fields.put("address.city", address == null ? null : address.getCity());
+        fields.put("address.state", address == null ? null : address.getState());
+        fields.put("dateOfBirth", customer.getDateOfBirth() == null ? null : customer.getDateOfBirth().toString());
+        fields.put("income", customer.getIncome() == null ? null : customer.getIncome().toString());
+        return fields;
+    }
+
+    /**
+     * Record of an update, or empty when the update did not change any audited field.
+     */
+    public static Optional<CustomerAuditRecord> updated(Map<String, String> before, Customer after, String requestID) {
+        Map<String, String> current = snapshot(after);
+        List<CustomerFieldChange> changes = new ArrayList<>();
+        before.forEach((field, value) -> {
+            if (!Objects.equals(value, current.get(field))) {
+                changes.add(new CustomerFieldChange(field, value, current.get(field)));
+            }
+        });
+        if (changes.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(record(after, CustomerAuditAction.UPDATED, changes, after.getVersion(), requestID));
+    }
+
+    /**
+     * Record of a deletion, keeping every audited field the customer had.
+     */
+    public static CustomerAuditRecord deleted(Customer customer, String requestID) {
+        List<CustomerFieldChange> changes = new ArrayList<>();
+        snapshot(customer).forEach((field, value) -> {
+            if (value != null) {
+                changes.add(new CustomerFieldChange(field, value, null));
+            }
+        });
+        Long version = customer.getVersion() == null ? null : customer.getVersion() + 1;
+        return record(customer, CustomerAuditAction.DELETED, changes, version, requestID);
+    }
+
+    private static CustomerAuditRecord record(Customer customer, CustomerAuditAction action,
+                                              List<CustomerFieldChange> changes, Long version, String requestID) {
+        return CustomerAuditRecord.builder()
+                .id(new ObjectId().toHexString())
+                .customerId(customer.getCustomerId())
+                .action(action)
+                .changes(changes)
+                .version(version)
+                .requestID(requestID)
+                .changedAt(Instant.now())
+                .build();
+    }
+}
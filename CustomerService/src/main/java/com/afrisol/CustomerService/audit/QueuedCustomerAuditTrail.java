@@ -0,0 +1,253 @@
+package com.afrisol.CustomerService.audit;
+
+import com.afrisol.CustomerService.model.CustomerAuditRecord;
+import com.afrisol.CustomerService.repository.CustomerAuditRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Takes audit records off the request path: {@link #record} only offers the record to a bounded in-memory
+ * queue, and a background loop writes the queue to Mongo in batches, one batch at a time. When Mongo is slow
+ * the queue fills up and new records are handed to a second bounded queue, which a spool writer on a worker
+ * thread appends to a local disk spool, so neither the heap grows nor the caller ever does disk I/O; batches
+ * that fail or time out are spooled the same way. The spool is replayed once the queue has been drained
+ * successfully.
+ * <p>
+ * Records are written at least once. Every record carries its own id and replayed batches skip records that
+ * already exist, so history is not duplicated.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(CustomerAuditProperties.class)
+public class QueuedCustomerAuditTrail implements CustomerAuditTrail, SmartLifecycle {
+
+    private final CustomerAuditRepository auditRepository;
+    private final CustomerAuditProperties properties;
+    private final CustomerAuditSpool spool;
+    private final BlockingQueue<CustomerAuditRecord> queue;
+    private final BlockingQueue<CustomerAuditRecord> overflow;
+    private final Scheduler spoolScheduler;
+    private final AtomicBoolean spoolWriterScheduled = new AtomicBoolean();
+    private final Counter written;
+    private final Counter spooled;
+    private final Counter dropped;
+    private volatile Disposable flushing;
+
+    @Autowired
+    public QueuedCustomerAuditTrail(CustomerAuditRepository auditRepository,
+                                    CustomerAuditProperties properties,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry) {
+        this(auditRepository, properties,
+                new CustomerAuditSpool(properties.getSpoolDirectory(), objectMapper, properties.getMaxSpoolBytes()),
+                Schedulers.boundedElastic(), meterRegistry);
+    }
+
+    QueuedCustomerAuditTrail(CustomerAuditRepository auditRepository,
+                             CustomerAuditProperties properties,
+                             CustomerAuditSpool spool,
+                             Scheduler spoolScheduler,
+                             MeterRegistry meterRegistry) {
+        this.auditRepository = auditRepository;
+        this.properties = properties;
+        this.spool = spool;
+        this.spoolScheduler = spoolScheduler;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.overflow = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.written = meterRegistry.counter("customer.audit.records", Tags.of("outcome", "written"));
+        this.spooled = meterRegistry.counter("customer.audit.records", Tags.of("outcome", "spooled"));
+        this.dropped = meterRegistry.counter("customer.audit.records", Tags.of("outcome", "dropped"));
+        meterRegistry.gaugeCollectionSize("customer.audit.queue", Tags.empty(), queue);
+        meterRegistry.gauge("customer.audit.spool.bytes", spool, CustomerAuditSpool::sizeBytes);
+    }
+
+    @Override
+    public void record(CustomerAuditRecord record) {
+        if (!isRunning() || !queue.offer(record)) {
+            handOffToSpool(List.of(record));
+        }
+    }
+
+    /**
+     * Writes every queued record, then replays the spool if all writes succeeded.
+     */
+    Mono<Void> flush() {
+        return drainQueue()
+                .filter(Boolean::booleanValue)
+                .flatMap(drained -> replaySpool());
+    }
+
+    /**
+     * Writes queued records batch by batch until the queue is empty or a write fails; emits whether every
+     * write succeeded.
+     */
+    private Mono<Boolean> drainQueue() {
+        return Mono.defer(this::writeQueuedBatch)
+                .expand(result -> result == properties.getBatchSize() ? Mono.defer(this::writeQueuedBatch) : Mono.empty())
+                .last()
+                .map(result -> result >= 0);
+    }
+
+    /**
+     * @return the number of records written, or {@code -1} when the batch had to be spooled
+     */
+    private Mono<Integer> writeQueuedBatch() {
+        List<CustomerAuditRecord> batch = new ArrayList<>(properties.getBatchSize());
+        queue.drainTo(batch, properties.getBatchSize());
+        if (batch.isEmpty()) {
+            return Mono.just(0);
+        }
+        return write(batch)
+                .thenReturn(batch.size())
+                // Cancelled on shutdown mid-write: the batch is already off the queue, so keep it on disk
+                .doOnCancel(() -> handOffToSpool(batch))
+                .onErrorResume(e -> {
+                    log.warn("Failed to write {} audit records, spooling them: {}", batch.size(), e.getMessage());
+                    handOffToSpool(batch);
+                    return Mono.just(-1);
+                });
+    }
+
+    private Mono<Void> replaySpool() {
+        return Mono.fromCallable(spool::sealAll)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(Flux::fromIterable)
+                .concatMap(file -> replay(file)
+                        .doOnSuccess(unused -> log.info("Replayed audit spool file {}", file.getFileName())))
+                .onErrorResume(e -> {
+                    log.warn("Audit spool replay paused: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> replay(Path file) {
+        return spool.read(file, properties.getBatchSize())
+                .concatMap(this::write)
+                .then(Mono.fromRunnable(() -> spool.delete(file)));
+    }
+
+    private Mono<Void> write(List<CustomerAuditRecord> batch) {
+        return auditRepository.insertAll(batch)
+                .timeout(properties.getWriteTimeout())
+                .doOnSuccess(unused -> written.increment(batch.size()));
+    }
+
+    /**
+     * Queues records for the spool writer without blocking; records that do not fit are dropped and counted.
+     * Runs on request and driver threads, so it must never touch the disk itself.
+     */
+    private void handOffToSpool(List<CustomerAuditRecord> records) {
+        int rejected = 0;
+        for (CustomerAuditRecord record : records) {
+            if (!overflow.offer(record)) {
+                rejected++;
+            }
+        }
+        if (rejected > 0) {
+            dropped.increment(rejected);
+            log.error("Dropped {} audit records, the spool writer is not keeping up", rejected);
+        }
+        scheduleSpoolWriter();
+    }
+
+    private void scheduleSpoolWriter() {
+        if (!overflow.isEmpty() && spoolWriterScheduled.compareAndSet(false, true)) {
+            spoolScheduler.schedule(this::writeOverflowToSpool);
+        }
+    }
+
+    private void writeOverflowToSpool() {
+        try {
+            spillOverflow();
+        } finally {
+            spoolWriterScheduled.set(false);
+        }
+        // Records handed off after the last drain but before the flag was cleared
+        scheduleSpoolWriter();
+    }
+
+    private void spillOverflow() {
+        List<CustomerAuditRecord> batch = new ArrayList<>(properties.getBatchSize());
+        while (overflow.drainTo(batch, properties.getBatchSize()) > 0) {
+            spill(batch);
+            batch.clear();
+        }
+    }
+
+    private void spill(List<CustomerAuditRecord> records) {
+        if (spool.append(records)) {
+            spooled.increment(records.size());
+        } else {
+            dropped.increment(records.size());
+            log.error("Dropped {} audit records, the audit spool is full or cannot be written", records.size());
+        }
+    }
+
+    @Override
+    public void start() {
+        flushing = Flux.interval(properties.getFlushInterval(), properties.getFlushInterval(), Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe(
+                        unused -> {
+                        },
+                        e -> log.error("Audit flushing stopped: {}", e.getMessage()));
+    }
+
+    /**
+     * Stops the background loop, makes one last attempt to write the queue, and spools whatever is left,
+     * including records still waiting for the spool writer.
+     */
+    @Override
+    public void stop() {
+        Disposable current = flushing;
+        flushing = null;
+        if (current != null) {
+            current.dispose();
+        }
+        try {
+            drainQueue().block(properties.getWriteTimeout().multipliedBy(2));
+        } catch (RuntimeException e) {
+            log.warn("Failed to write queued audit records on shutdown: {}", e.getMessage());
+        }
+        List<CustomerAuditRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            spill(remaining);
+        }
+        spillOverflow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return flushing != null;
+    }
+
+    /**
+     * Starts before and stops after the web server, so every request that records a change is still drained.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -2,9 +2,13 @@ package com.afrisol.CustomerService.controller;
 
 import com.afrisol.CustomerService.dto.CustomerRequestDto;
 import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.exception.CustomException;
+import com.afrisol.CustomerService.idempotency.IdempotentRequests;
+import com.afrisol.CustomerService.repository.RepositoryResilience;
 import com.afrisol.CustomerService.service.CustomerService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -12,6 +16,7 @@ import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 @RestController
@@ -19,17 +24,22 @@ import java.util.UUID;
 @Slf4j
 public class CustomerController {
     private final CustomerService customerService;
+    private final IdempotentRequests idempotentRequests;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, IdempotentRequests idempotentRequests) {
         this.customerService = customerService;
+        this.idempotentRequests = idempotentRequests;
     }
 
     @PostMapping
-    public Mono<ResponseEntity<CustomerResponseDto>> addCustomer(@RequestBody @Valid CustomerRequestDto customerDto) {
+    public Mono<ResponseEntity<CustomerResponseDto>> addCustomer(
+            @RequestBody @Valid CustomerRequestDto customerDto,
+            @RequestHeader(value = IdempotentRequests.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         String requestID = UUID.randomUUID().toString();
         log.info("Adding customer with phone : {} and requestID {}", customerDto.getPhone(), requestID);
-        return customerService.addCustomer(customerDto, requestID)
-                .map(ResponseEntity::ok);
+        return idempotentRequests.execute("POST /api/v1/customers", idempotencyKey, customerDto,
+                () -> customerService.addCustomer(customerDto, requestID)
+                        .map(ResponseEntity::ok));
     }
     @GetMapping
     public Flux<CustomerResponseDto> getAllCustomers() {
@@ -38,16 +48,32 @@ public class CustomerController {
         return customerService.getAllCustomers(requestID);
     }
     @GetMapping("/{email}")
-    public Mono<ResponseEntity<CustomerResponseDto>> getCustomer(@PathVariable  @Valid String email) {
+    public Mono<ResponseEntity<CustomerResponseDto>> getCustomer(
+            @PathVariable  @Valid String email,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         String requestID = UUID.randomUUID().toString();
         log.info("Getting customer with email  : {} and requestID: {}", email, requestID);
-        return customerService.getCustomer(email, requestID)
-                .map(ResponseEntity::ok)
+        Mono<ResponseEntity<CustomerResponseDto>> response = customerService.getCustomer(email, requestID)
+                .map(customer -> ResponseEntity.ok()
+                        .headers(headers -> setETag(headers, customer.getVersion()))
+                        .body(customer));
+        if (ifNoneMatch != null) {
+            // Answer from a version-only projection first and only load the document when it has changed
+            Mono<ResponseEntity<CustomerResponseDto>> fullResponse = response;
+            response = customerService.getCustomerVersion(email, requestID)
+                    .filter(version -> CustomerETags.matchesAny(ifNoneMatch, version))
+                    .map(version -> ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .headers(headers -> setETag(headers, version))
+                            .<CustomerResponseDto>build())
+                    .switchIfEmpty(Mono.defer(() -> fullResponse));
+        }
+        return response
                 .onErrorResume(ResponseStatusException.class, ex -> {
                     log.error("Error: {}", ex.getReason());
                     return Mono.just(ResponseEntity.status(ex.getStatusCode()).body(null));
                 })
-                .onErrorResume(RuntimeException.class, ex ->
+                // An unavailable store is left to the exception handler, which answers 503 or 504
+                .onErrorResume(ex -> ex instanceof RuntimeException && !RepositoryResilience.isUnavailable(ex), ex ->
                         {
                             log.error("Unhandled RuntimeException: {}", ex.getMessage());
                             return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null));
@@ -57,24 +83,45 @@ public class CustomerController {
     @PutMapping("/{customerId}")
     public Mono<ResponseEntity<CustomerResponseDto>> updateCustomer(
             @PathVariable String customerId,
-            @RequestBody @Valid CustomerRequestDto customerDto) {
+            @RequestBody @Valid CustomerRequestDto customerDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = IdempotentRequests.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         String requestID = UUID.randomUUID().toString();
         log.info("Updating customer with ID: {} and requestID {}", customerId, requestID);
-        return customerService.updateCustomer(customerDto, customerId, requestID)
-                .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build());
+        Long expectedVersion = CustomerETags.parseIfMatch(ifMatch);
+        return idempotentRequests.execute("PUT /api/v1/customers/" + customerId, idempotencyKey,
+                Arrays.asList(customerDto, ifMatch),
+                () -> customerService.updateCustomer(customerDto, customerId, expectedVersion, requestID)
+                        .map(customer -> ResponseEntity.ok()
+                                .headers(headers -> setETag(headers, customer.getVersion()))
+                                .body(customer))
+                        .defaultIfEmpty(ResponseEntity.notFound().build()));
     }
 
     @DeleteMapping("/{customerId}")
-    public Mono<ResponseEntity<Object>> deleteCustomer(@PathVariable String customerId) {
+    public Mono<ResponseEntity<Object>> deleteCustomer(
+            @PathVariable String customerId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         String requestID = UUID.randomUUID().toString();
         log.info("Deleting customer with ID: {} and requestID {}", customerId, requestID);
-        return customerService.deleteCustomer(customerId, requestID)
+        Long expectedVersion = CustomerETags.parseIfMatch(ifMatch);
+        return customerService.deleteCustomer(customerId, expectedVersion, requestID)
                 .then(Mono.just(ResponseEntity.noContent().<Object>build())) // Success: 204 No Content
+                .onErrorResume(CustomException.class, e -> {
+                    log.error("Precondition failed deleting customer with ID: {} - {}", customerId, e.getMessage());
+                    return Mono.just(ResponseEntity.status(e.getStatus()).<Object>body(e.getMessage()));
+                })
                 .onErrorResume(e -> {
                     log.error("Error deleting customer with ID: {} - {}", customerId, e.getMessage(), e);
                     return Mono.just(ResponseEntity.status(404).<Object>build()); // Error: 404 Not Found
                 });
     }
 
+    private static void setETag(HttpHeaders headers, Long version) {
+        String eTag = CustomerETags.format(version);
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+    }
+
 }
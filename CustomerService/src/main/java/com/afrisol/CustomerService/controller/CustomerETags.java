@@ -0,0 +1,61 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.exception.CustomException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Maps customer document versions to strong entity tags and back.
+ */
+final class CustomerETags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private CustomerETags() {
+    }
+
+    static String format(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Weak comparison as required for {@code If-None-Match}: any listed tag naming the version matches.
+     */
+    static boolean matchesAny(String ifNoneMatch, Long version) {
+        if (ifNoneMatch == null || version == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals(ANY)) {
+                return true;
+            }
+            if (candidate.startsWith(WEAK_PREFIX)) {
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if (candidate.equals(format(version))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extracts the version an {@code If-Match} precondition requires, or {@code null} when there is no
+     * precondition. Weak tags can never satisfy {@code If-Match}, so they are rejected.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(ANY)) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new CustomException(HttpStatus.PRECONDITION_FAILED, "If-Match must be a single strong entity tag");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new CustomException(HttpStatus.PRECONDITION_FAILED, "If-Match does not name a customer version");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerHistoryDto;
+import com.afrisol.CustomerService.service.CustomerHistoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("api/v1/customers")
+@Slf4j
+public class CustomerHistoryController {
+    private final CustomerHistoryService historyService;
+
+    public CustomerHistoryController(CustomerHistoryService historyService) {
+        this.historyService = historyService;
+    }
+
+    @GetMapping("/{customerId}/history")
+    public Mono<ResponseEntity<CustomerHistoryDto>> getHistory(
+            @PathVariable String customerId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        String requestID = UUID.randomUUID().toString();
+        log.info("Getting history of customer with ID: {} and requestID {}", customerId, requestID);
+        return historyService.getHistory(customerId, page, size, requestID)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,36 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerLookupRequestDto;
+import com.afrisol.CustomerService.dto.CustomerLookupResultDto;
+import com.afrisol.CustomerService.service.CustomerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * Batch reads live under their own mapping because the {@code customers:lookup} custom method cannot be
+ * expressed relative to {@link CustomerController}'s {@code api/v1/customers} prefix.
+ */
+@RestController
+@RequestMapping("api/v1")
+@Slf4j
+public class CustomerLookupController {
+    private final CustomerService customerService;
+
+    public CustomerLookupController(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @PostMapping(value = "/customers:lookup", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<CustomerLookupResultDto> lookupCustomers(@RequestBody CustomerLookupRequestDto lookupDto) {
+        String requestID = UUID.randomUUID().toString();
+        log.info("Looking up customers in batch with requestID {}", requestID);
+        return customerService.lookupCustomers(lookupDto, requestID);
+    }
+}
@@ -0,0 +1,91 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerLookupRequestDto;
+import com.afrisol.CustomerService.dto.CustomerLookupResultDto;
+import com.afrisol.CustomerService.dto.CustomerRequestDto;
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.service.CustomerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * RSocket counterpart of {@link CustomerController} and {@link CustomerLookupController} for internal callers.
+ * One connection multiplexes all of a caller's requests, and payloads are CBOR encoded, which removes the
+ * per-request connection and JSON parsing overhead of the HTTP API. Flow control is RSocket's own
+ * {@code REQUEST_N}: streams only emit what the requester asked for.
+ * <p>
+ * Routes:
+ * <ul>
+ *     <li>{@code customers.create}, {@code customers.get}, {@code customers.update.{customerId}},
+ *     {@code customers.delete.{customerId}}: request-response</li>
+ *     <li>{@code customers.list}: request-stream</li>
+ *     <li>{@code customers.lookup}: request-channel, one result stream per inbound lookup request</li>
+ * </ul>
+ */
+@Controller
+@Slf4j
+public class CustomerRSocketController {
+    /**
+     * Inbound lookup requests resolved at once on a channel; this also bounds the demand sent upstream.
+     */
+    static final int LOOKUP_CONCURRENCY = 2;
+
+    private final CustomerService customerService;
+
+    public CustomerRSocketController(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @MessageMapping("customers.create")
+    public Mono<CustomerResponseDto> addCustomer(@Payload CustomerRequestDto customerDto) {
+        String requestID = UUID.randomUUID().toString();
+        log.info("Adding customer over RSocket with phone : {} and requestID {}", customerDto.getPhone(), requestID);
+        return customerService.addCustomer(customerDto, requestID);
+    }
+
+    /**
+     * The email travels as the payload rather than in the route, as route segments are separated by dots.
+     */
+    @MessageMapping("customers.get")
+    public Mono<CustomerResponseDto> getCustomer(@Payload String email) {
+        String requestID = UUID.randomUUID().toString();
+        log.info("Getting customer over RSocket with email : {} and requestID: {}", email, requestID);
+        return customerService.getCustomer(email, requestID);
+    }
+
+    @MessageMapping("customers.list")
+    public Flux<CustomerResponseDto> getAllCustomers() {
+        String requestID = UUID.randomUUID().toString();
+        log.info("Streaming all customers over RSocket : {}", requestID);
+        return customerService.getAllCustomers(requestID);
+    }
+
+    @MessageMapping("customers.lookup")
+    public Flux<CustomerLookupResultDto> lookupCustomers(@Payload Flux<CustomerLookupRequestDto> lookups) {
+        String requestID = UUID.randomUUID().toString();
+        log.info("Opening customer lookup channel with requestID {}", requestID);
+        return lookups.flatMapSequential(lookup -> customerService.lookupCustomers(lookup, requestID), LOOKUP_CONCURRENCY);
+    }
+
+    @MessageMapping("customers.update.{customerId}")
+    public Mono<CustomerResponseDto> updateCustomer(@DestinationVariable String customerId,
+                                                    @Payload CustomerRequestDto customerDto) {
+        String requestID = UUID.randomUUID().toString();
+        log.info("Updating customer over RSocket with ID: {} and requestID {}", customerId, requestID);
+        return customerService.updateCustomer(customerDto, customerId, requestID);
+    }
+
+    @MessageMapping("customers.delete.{customerId}")
+    public Mono<Void> deleteCustomer(@DestinationVariable String customerId) {
+        String requestID = UUID.randomUUID().toString();
+        log.info("Deleting customer over RSocket with ID: {} and requestID {}", customerId, requestID);
+        return customerService.deleteCustomer(customerId, requestID);
+    }
+}
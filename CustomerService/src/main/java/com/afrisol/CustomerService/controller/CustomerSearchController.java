@@ -0,0 +1,31 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.service.CustomerSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("api/v1/customers")
+@Slf4j
+public class CustomerSearchController {
+    private final CustomerSearchService searchService;
+
+    public CustomerSearchController(CustomerSearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping("/search")
+    public Flux<CustomerResponseDto> searchCustomers(@RequestParam("q") String query,
+                                                     @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        String requestID = UUID.randomUUID().toString();
+        log.info("Searching customers by name : {} and requestID {}", query, requestID);
+        return searchService.searchCustomers(query, limit, requestID);
+    }
+}
@@ -0,0 +1,31 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerStatisticsDto;
+import com.afrisol.CustomerService.service.CustomerStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("api/v1/customers")
+@Slf4j
+public class CustomerStatisticsController {
+    private final CustomerStatisticsService statisticsService;
+
+    public CustomerStatisticsController(CustomerStatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
+    }
+
+    @GetMapping("/statistics")
+    public Mono<ResponseEntity<CustomerStatisticsDto>> getStatistics() {
+        String requestID = UUID.randomUUID().toString();
+        log.info("Getting customer statistics with requestID {}", requestID);
+        return statisticsService.getStatistics(requestID)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,24 @@
+package com.afrisol.CustomerService.dto;
+
+import com.afrisol.CustomerService.model.CustomerAuditRecord;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerHistoryDto {
+        private String customerId;
+        private int page;
+        private int size;
+        private long totalChanges;
+        /**
+         * Newest change first.
+         */
+        private List<CustomerAuditRecord> changes;
+}
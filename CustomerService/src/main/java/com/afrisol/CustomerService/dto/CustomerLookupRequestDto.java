@@ -0,0 +1,17 @@
+package com.afrisol.CustomerService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerLookupRequestDto {
+    private List<String> ids;
+    private List<String> emails;
+}
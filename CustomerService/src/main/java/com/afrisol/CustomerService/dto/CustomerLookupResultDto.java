@@ -0,0 +1,16 @@
+package com.afrisol.CustomerService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerLookupResultDto {
+        private String key;
+        private boolean found;
+        private CustomerResponseDto customer;
+}
@@ -1,5 +1,6 @@
 package com.afrisol.CustomerService.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,4 +15,6 @@ public class CustomerResponseDto {
         private String firstName;
         private String lastName;
         private String phone;
+        @JsonIgnore
+        private Long version;
 }
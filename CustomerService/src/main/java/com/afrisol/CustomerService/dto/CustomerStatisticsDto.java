@@ -0,0 +1,22 @@
+package com.afrisol.CustomerService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerStatisticsDto {
+        private long totalCustomers;
+        private List<StatisticsBucketDto> customersByState;
+        private List<StatisticsBucketDto> customersByCity;
+        private List<StatisticsBucketDto> incomeBands;
+        private List<StatisticsBucketDto> ageBands;
+        private Instant generatedAt;
+}
@@ -0,0 +1,15 @@
+package com.afrisol.CustomerService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatisticsBucketDto {
+        private String label;
+        private long count;
+}
@@ -0,0 +1,30 @@
+package com.afrisol.CustomerService.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "customer.idempotency")
+public class IdempotencyProperties {
+    /**
+     * Completed responses kept in memory, in front of the idempotency collection.
+     */
+    private int cacheSize = 10_000;
+    private Duration cacheTtl = Duration.ofMinutes(10);
+    /**
+     * Age after which a claim that never completed may be taken over by a retry.
+     */
+    private Duration claimTimeout = Duration.ofSeconds(30);
+    /**
+     * How long a duplicate waits for a request in progress on another instance before it gets a 409.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+    private Duration pollInterval = Duration.ofMillis(100);
+    /**
+     * Attempts at storing a response before the request fails with its claim kept.
+     */
+    private int completeAttempts = 3;
+    private Duration completeBackoff = Duration.ofMillis(50);
+}
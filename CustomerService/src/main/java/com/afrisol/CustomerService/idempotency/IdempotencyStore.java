@@ -0,0 +1,38 @@
+package com.afrisol.CustomerService.idempotency;
+
+import com.afrisol.CustomerService.model.IdempotencyRecord;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Where {@link IdempotentRequests} keeps its claims and completed responses.
+ */
+public interface IdempotencyStore {
+
+    Mono<IdempotencyRecord> findById(String id);
+
+    /**
+     * Claims the key for a request that is about to run.
+     *
+     * @return {@code false} when another request claimed it first
+     */
+    Mono<Boolean> claim(String id, String requestHash);
+
+    /**
+     * Takes over a claim whose request never completed, for instance because the instance running it died.
+     *
+     * @return {@code false} when the claim completed or was taken over by someone else in the meantime
+     */
+    Mono<Boolean> takeOver(String id, String requestHash, Instant staleBefore);
+
+    /**
+     * Stores the response of a claimed request, so replays of its key are answered with it.
+     */
+    Mono<Void> complete(IdempotencyRecord record);
+
+    /**
+     * Drops a claim whose request failed, so a retry with the same key runs the request again.
+     */
+    Mono<Void> release(String id);
+}
@@ -0,0 +1,216 @@
+package com.afrisol.CustomerService.idempotency;
+
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.exception.CustomException;
+import com.afrisol.CustomerService.model.IdempotencyRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write at most once per {@code Idempotency-Key}, so gateway retries of a request that already went
+ * through are answered with the first response instead of creating or updating the customer again:
+ * <ul>
+ *     <li>completed responses are kept in a small in-memory cache, which answers most replays without any I/O;</li>
+ *     <li>duplicates arriving on this instance while the first request still runs share its result;</li>
+ *     <li>otherwise the key is claimed in the {@code idempotency_keys} collection before the request runs, and
+ *     duplicates on other instances wait for the claim to complete.</li>
+ * </ul>
+ * Only successful responses are kept. A failed request releases its claim, so a retry runs it again. A request
+ * that went through but whose response could not be stored keeps its claim and fails, as releasing the claim
+ * would let a retry apply it twice.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotentRequests {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Mono<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CachedRecord> completed;
+
+    public IdempotentRequests(IdempotencyStore idempotencyStore,
+                              IdempotencyProperties properties,
+                              ObjectMapper objectMapper) {
+        this.idempotencyStore = idempotencyStore;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<String, CachedRecord>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedRecord> eldest) {
+                return size() > properties.getCacheSize();
+            }
+        });
+    }
+
+    /**
+     * Runs {@code request} unless a request with the same key already ran in this scope, in which case its
+     * response is returned instead.
+     *
+     * @param scope   method and path the key applies to, keys are not shared across endpoints
+     * @param key     the {@code Idempotency-Key} header, or {@code null} to simply run the request
+     * @param payload everything the request depends on besides the scope; reusing a key with a different payload
+     *                is rejected with 422
+     */
+    public Mono<ResponseEntity<CustomerResponseDto>> execute(String scope, String key, Object payload,
+                                                             Supplier<Mono<ResponseEntity<CustomerResponseDto>>> request) {
+        if (key == null) {
+            return Mono.defer(request);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new IllegalArgumentException(
+                    IDEMPOTENCY_KEY + " must be between 1 and " + MAX_KEY_LENGTH + " characters"));
+        }
+        String id = scope + " " + key;
+        String requestHash;
+        try {
+            requestHash = hash(payload);
+        } catch (JsonProcessingException e) {
+            return Mono.error(new IllegalArgumentException("Request cannot be fingerprinted: " + e.getMessage()));
+        }
+        CachedRecord cached = completed.get(id);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            log.info("Replaying cached response for {}", id);
+            return replay(cached.record(), requestHash);
+        }
+        return inFlight.computeIfAbsent(id, unused -> resolve(id, requestHash, request)
+                        .doOnNext(record -> {
+                            if (HttpStatus.valueOf(record.getStatus()).is2xxSuccessful()) {
+                                completed.put(id, new CachedRecord(record, Instant.now().plus(properties.getCacheTtl())));
+                            }
+                        })
+                        .doFinally(signal -> inFlight.remove(id))
+                        .cache())
+                .flatMap(record -> replay(record, requestHash));
+    }
+
+    /**
+     * Looks the key up, running the request when it is free and waiting when it is claimed, until it completes
+     * or the wait times out.
+     */
+    private Mono<IdempotencyRecord> resolve(String id, String requestHash,
+                                            Supplier<Mono<ResponseEntity<CustomerResponseDto>>> request) {
+        long polls = Math.max(1, properties.getWaitTimeout().toMillis() / Math.max(1, properties.getPollInterval().toMillis()));
+        return Mono.defer(() -> attempt(id, requestHash, request))
+                .repeatWhenEmpty(repeats -> repeats.take(polls).delayElements(properties.getPollInterval()))
+                .switchIfEmpty(Mono.error(() -> new CustomException(HttpStatus.CONFLICT,
+                        "A request with this " + IDEMPOTENCY_KEY + " is still in progress")));
+    }
+
+    /**
+     * @return the completed record, or empty while another request holds the claim
+     */
+    private Mono<IdempotencyRecord> attempt(String id, String requestHash,
+                                            Supplier<Mono<ResponseEntity<CustomerResponseDto>>> request) {
+        return idempotencyStore.findById(id)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(existing -> {
+                    if (existing.isEmpty()) {
+                        return idempotencyStore.claim(id, requestHash)
+                                .flatMap(claimed -> claimed ? run(id, requestHash, request) : Mono.empty());
+                    }
+                    IdempotencyRecord record = existing.get();
+                    if (record.getStatus() != null) {
+                        return Mono.just(record);
+                    }
+                    Instant staleBefore = Instant.now().minus(properties.getClaimTimeout());
+                    if (record.getClaimedAt() != null && record.getClaimedAt().isBefore(staleBefore)) {
+                        return idempotencyStore.takeOver(id, requestHash, staleBefore)
+                                .flatMap(tookOver -> tookOver ? run(id, requestHash, request) : Mono.empty());
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<IdempotencyRecord> run(String id, String requestHash,
+                                        Supplier<Mono<ResponseEntity<CustomerResponseDto>>> request) {
+        return Mono.defer(request)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Request completed without a response")))
+                .flatMap(response -> {
+                    IdempotencyRecord record = IdempotencyRecord.builder()
+                            .id(id)
+                            .requestHash(requestHash)
+                            .status(response.getStatusCode().value())
+                            .eTag(response.getHeaders().getETag())
+                            .response(response.getBody())
+                            .build();
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        return idempotencyStore.release(id).thenReturn(record);
+                    }
+                    return idempotencyStore.complete(record)
+                            .retryWhen(Retry.backoff(Math.max(0, properties.getCompleteAttempts() - 1),
+                                            properties.getCompleteBackoff())
+                                    .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                            .thenReturn(record)
+                            .onErrorMap(e -> {
+                                log.error("Failed to store the response for {}, keeping its claim: {}", id, e.getMessage());
+                                return new ResponseNotStoredException();
+                            });
+                })
+                .onErrorResume(e -> !(e instanceof ResponseNotStoredException), e -> idempotencyStore.release(id)
+                        .onErrorResume(releaseError -> {
+                            log.warn("Failed to release {}: {}", id, releaseError.getMessage());
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(e)));
+    }
+
+    private Mono<ResponseEntity<CustomerResponseDto>> replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return Mono.error(new CustomException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    IDEMPOTENCY_KEY + " was already used with a different request"));
+        }
+        return Mono.just(ResponseEntity.status(record.getStatus())
+                .headers(headers -> {
+                    if (record.getETag() != null) {
+                        headers.setETag(record.getETag());
+                    }
+                })
+                .body(record.getResponse()));
+    }
+
+    String hash(Object payload) throws JsonProcessingException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(payload)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedRecord(IdempotencyRecord record, Instant expiresAt) {
+    }
+
+    /**
+     * The request was applied, but its response could not be stored for replays.
+     */
+    private static final class ResponseNotStoredException extends CustomException {
+        ResponseNotStoredException() {
+            super(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "The request was applied but its response could not be stored for " + IDEMPOTENCY_KEY + " replays");
+        }
+    }
+}
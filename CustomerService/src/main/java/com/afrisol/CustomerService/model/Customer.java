@@ -7,11 +7,22 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+import org.springframework.data.mongodb.core.mapping.ShardingStrategy;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 
 @Document(collection = "customers")
+@Sharded(shardingStrategy = ShardingStrategy.HASH)
+@CompoundIndex(name = "active_by_location", def = "{ 'address.state': 1, 'address.city': 1 }",
+        partialFilter = "{ 'deletedAt': { '$type': 10 } }")
 @Data
 @Builder
 @NoArgsConstructor
@@ -31,4 +42,19 @@ public class Customer {
     private LocalDate dateOfBirth;
     @NotBlank
     private Double income;
+    @Version
+    private Long version;
+    /**
+     * Normalised name forms for typeahead search, maintained by the repository on every save. The index only
+     * holds active customers, so search cost tracks the live portfolio rather than its history.
+     */
+    @Indexed(name = "active_name_prefixes", partialFilter = "{ 'deletedAt': { '$type': 10 } }")
+    private List<String> searchNames;
+    /**
+     * Set when the customer is soft deleted. Always written, so active customers carry an explicit null that
+     * partial indexes can filter on; the archive index only holds deleted customers.
+     */
+    @Field(write = Field.Write.ALWAYS)
+    @Indexed(name = "archive_candidates", partialFilter = "{ 'deletedAt': { '$type': 9 } }")
+    private Instant deletedAt;
 }
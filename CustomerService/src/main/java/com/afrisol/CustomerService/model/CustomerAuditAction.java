@@ -0,0 +1,6 @@
+package com.afrisol.CustomerService.model;
+
+public enum CustomerAuditAction {
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,40 @@
+package com.afrisol.CustomerService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+import org.springframework.data.mongodb.core.mapping.ShardingStrategy;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One change made to a customer. The id is assigned when the change is recorded, so a batch written twice after
+ * a partial failure does not duplicate history. Sharded on the customer, so a customer's history is read from a
+ * single shard.
+ */
+@Document(collection = "customer_audit")
+@Sharded(shardKey = "customerId", shardingStrategy = ShardingStrategy.HASH)
+@CompoundIndex(name = "customer_history", def = "{ 'customerId': 1, 'changedAt': -1 }")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerAuditRecord {
+    @Id
+    private String id;
+    private String customerId;
+    private CustomerAuditAction action;
+    private List<CustomerFieldChange> changes;
+    /**
+     * Version of the customer after the change.
+     */
+    private Long version;
+    private String requestID;
+    private Instant changedAt;
+}
@@ -0,0 +1,25 @@
+package com.afrisol.CustomerService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+import org.springframework.data.mongodb.core.mapping.ShardingStrategy;
+
+/**
+ * Claim of a normalized email by one customer. Keying the claim by email makes email lookups a single-shard
+ * read on this collection, and the unique {@code _id} enforces email uniqueness even when both collections are
+ * sharded on hashed {@code _id}.
+ */
+@Document(collection = "customer_emails")
+@Sharded(shardingStrategy = ShardingStrategy.HASH)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerEmail {
+    @Id
+    private String email;
+    private String customerId;
+}
@@ -0,0 +1,20 @@
+package com.afrisol.CustomerService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Value of one customer field before and after a change, rendered as text so every field type reads back the
+ * same way from Mongo and from the audit spool.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerFieldChange {
+    private String field;
+    private String before;
+    private String after;
+}
@@ -0,0 +1,39 @@
+package com.afrisol.CustomerService.model;
+
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+import org.springframework.data.mongodb.core.mapping.ShardingStrategy;
+
+import java.time.Instant;
+
+/**
+ * Outcome of the first request sent with an {@code Idempotency-Key}, keyed by the method, path and key. The
+ * record is claimed before the request runs and completed with its response; a claim without a status is still
+ * in progress. Records expire a day after they were claimed.
+ */
+@Document(collection = "idempotency_keys")
+@Sharded(shardingStrategy = ShardingStrategy.HASH)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    private String id;
+    /**
+     * Hash of the request the key was first used with; a different request under the same key is rejected.
+     */
+    private String requestHash;
+    private Integer status;
+    private String eTag;
+    private CustomerResponseDto response;
+    @Indexed(name = "idempotency_expiry", expireAfter = "1d")
+    private Instant claimedAt;
+}
@@ -0,0 +1,32 @@
+package com.afrisol.CustomerService.repository;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Idempotent batch inserts for documents that carry their own {@code _id}: the insert is unordered and
+ * documents that already exist are skipped, so a batch can safely be written again after a partial failure.
+ */
+final class BulkWrites {
+
+    private BulkWrites() {
+    }
+
+    static Mono<Void> insertIgnoringDuplicates(ReactiveMongoTemplate mongoTemplate, String collection, List<Document> documents) {
+        return mongoTemplate.getCollection(collection)
+                .flatMap(target -> Mono.from(target.insertMany(documents, new InsertManyOptions().ordered(false))))
+                .onErrorResume(MongoBulkWriteException.class, e -> onlyDuplicates(e) ? Mono.empty() : Mono.error(e))
+                .then();
+    }
+
+    private static boolean onlyDuplicates(MongoBulkWriteException e) {
+        return e.getWriteConcernError() == null && e.getWriteErrors().stream()
+                .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+    }
+}
@@ -0,0 +1,114 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.model.Customer;
+import com.mongodb.client.result.DeleteResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Moves customers that were soft deleted longer than the retention period ago out of the hot {@code customers}
+ * collection into {@code customers_archive}, so the active working set and its indexes stay small as history
+ * grows. Work is done in small batches with a pause in between and a cap per run, which keeps the archiver from
+ * competing with customer traffic for the primary.
+ * <p>
+ * A batch is copied before it is removed; if a run dies in between, the next run copies the same documents again
+ * and the duplicates are ignored, so nothing is lost or archived twice.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "customer.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerArchiver {
+
+    static final String ARCHIVE_COLLECTION = "customers_archive";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration pause;
+    private final int maxBatches;
+
+    public CustomerArchiver(ReactiveMongoTemplate mongoTemplate,
+                            @Value("${customer.archive.retention:P30D}") Duration retention,
+                            @Value("${customer.archive.batch-size:500}") int batchSize,
+                            @Value("${customer.archive.pause:1s}") Duration pause,
+                            @Value("${customer.archive.max-batches:100}") int maxBatches) {
+        this.mongoTemplate = mongoTemplate;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.maxBatches = maxBatches;
+    }
+
+    /**
+     * Archives expired customers until a batch comes back short or the per-run cap is reached.
+     *
+     * @return the number of customers archived by this run
+     */
+    @Scheduled(initialDelayString = "${customer.archive.initial-delay:PT5M}",
+            fixedDelayString = "${customer.archive.interval:PT1H}")
+    public Mono<Long> archiveExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        return Flux.range(0, maxBatches)
+                .concatMap(batch -> batch == 0
+                        ? archiveBatch(cutoff)
+                        : Mono.delay(pause).then(archiveBatch(cutoff)))
+                .takeUntil(batch -> batch.read() < batchSize)
+                .reduce(0L, (total, batch) -> total + batch.archived())
+                .doOnNext(total -> {
+                    if (total > 0) {
+                        log.info("Archived {} customers deleted before {}", total, cutoff);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to archive deleted customers: {}", e.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+
+    private Mono<BatchResult> archiveBatch(Instant cutoff) {
+        String customers = mongoTemplate.getCollectionName(Customer.class);
+        Query expired = Query.query(CustomerCriteria.deletedBefore(cutoff)).limit(batchSize);
+        return mongoTemplate.find(expired, Document.class, customers)
+                .collectList()
+                .flatMap(batch -> batch.isEmpty()
+                        ? Mono.just(new BatchResult(0, 0))
+                        : copyToArchive(batch)
+                                .then(removeFromCustomers(batch, cutoff, customers))
+                                .map(archived -> new BatchResult(batch.size(), archived)));
+    }
+
+    private Mono<Void> copyToArchive(List<Document> batch) {
+        Instant archivedAt = Instant.now();
+        batch.forEach(document -> document.append("archivedAt", archivedAt));
+        return BulkWrites.insertIgnoringDuplicates(mongoTemplate, ARCHIVE_COLLECTION, batch);
+    }
+
+    private Mono<Long> removeFromCustomers(List<Document> batch, Instant cutoff, String customers) {
+        List<Object> ids = batch.stream().map(document -> document.get("_id")).toList();
+        // Re-checking the cutoff keeps a customer that changed since it was read in the hot collection
+        Query archived = Query.query(Criteria.where(CustomerRepositoryCustomImpl.SHARD_KEY).in(ids))
+                .addCriteria(CustomerCriteria.deletedBefore(cutoff));
+        return mongoTemplate.remove(archived, customers)
+                .map(DeleteResult::getDeletedCount);
+    }
+
+    /**
+     * Customers read for a batch, which decides whether another batch follows, and those actually removed from
+     * the hot collection, which is what a run reports as archived.
+     */
+    private record BatchResult(int read, long archived) {
+    }
+}
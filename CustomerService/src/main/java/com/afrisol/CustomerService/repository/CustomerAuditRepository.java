@@ -0,0 +1,61 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.model.CustomerAuditRecord;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Audit collection, sharded on hashed {@code customerId}:
+ * <pre>
+ * sh.shardCollection("customer_service_db.customer_audit", { customerId: "hashed" })
+ * </pre>
+ * History reads filter on {@code customerId} and are served by the {@code customer_history} index in order.
+ */
+@Repository
+public class CustomerAuditRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public CustomerAuditRepository(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Writes a batch of audit records in one unordered insert. Records already written by an earlier attempt
+     * are skipped.
+     */
+    public Mono<Void> insertAll(List<CustomerAuditRecord> records) {
+        List<Document> documents = records.stream()
+                .map(record -> {
+                    Document document = new Document();
+                    mongoTemplate.getConverter().write(record, document);
+                    return document;
+                })
+                .toList();
+        return BulkWrites.insertIgnoringDuplicates(mongoTemplate, mongoTemplate.getCollectionName(CustomerAuditRecord.class), documents);
+    }
+
+    public Flux<CustomerAuditRecord> findHistory(String customerId, int page, int size) {
+        Query query = byCustomer(customerId)
+                .with(Sort.by(Sort.Direction.DESC, "changedAt"))
+                .skip((long) page * size)
+                .limit(size);
+        return mongoTemplate.find(query, CustomerAuditRecord.class);
+    }
+
+    public Mono<Long> countHistory(String customerId) {
+        return mongoTemplate.count(byCustomer(customerId), CustomerAuditRecord.class);
+    }
+
+    private static Query byCustomer(String customerId) {
+        return Query.query(Criteria.where("customerId").is(customerId));
+    }
+}
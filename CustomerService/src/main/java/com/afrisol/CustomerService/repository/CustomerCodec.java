@@ -0,0 +1,185 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.model.Address;
+import com.afrisol.CustomerService.model.Customer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Hand-written mapping between {@link Customer} and its BSON document, registered as custom conversions so the
+ * hot read and write paths skip the reflective {@code MappingMongoConverter} entirely. Documents are written
+ * exactly as the reflective mapping wrote them, with the same field names and BSON types, so queries, indexes,
+ * aggregations and instances still running the previous release all keep working.
+ * <p>
+ * Reads also accept a more compact form of two fields, an int32 day count for {@code dateOfBirth} and an int32
+ * for whole {@code income} amounts, so a later release can start writing it without breaking instances running
+ * this one. Every field is optional on read, which is what lets projections use the same codec.
+ */
+public final class CustomerCodec {
+
+    static final String ID = "_id";
+    static final String FIRST_NAME = "firstName";
+    static final String LAST_NAME = "lastName";
+    static final String EMAIL = "email";
+    static final String PHONE = "phone";
+    static final String ADDRESS = "address";
+    static final String STREET = "street";
+    static final String CITY = "city";
+    static final String STATE = "state";
+    static final String DATE_OF_BIRTH = "dateOfBirth";
+    static final String INCOME = "income";
+    static final String VERSION = "version";
+    static final String SEARCH_NAMES = "searchNames";
+
+    private CustomerCodec() {
+    }
+
+    /**
+     * Converters to register with {@code MongoCustomConversions}.
+     */
+    public static List<Converter<?, ?>> converters() {
+        return List.of(CustomerWriter.INSTANCE, CustomerReader.INSTANCE, AddressWriter.INSTANCE, AddressReader.INSTANCE);
+    }
+
+    public static Document encode(Customer customer) {
+        Document document = new Document();
+        String customerId = customer.getCustomerId();
+        if (customerId != null) {
+            // Ids that look like ObjectIds are stored as ObjectIds, exactly as the reflective mapping did
+            document.put(ID, ObjectId.isValid(customerId) ? new ObjectId(customerId) : customerId);
+        }
+        putIfPresent(document, FIRST_NAME, customer.getFirstName());
+        putIfPresent(document, LAST_NAME, customer.getLastName());
+        putIfPresent(document, EMAIL, customer.getEmail());
+        putIfPresent(document, PHONE, customer.getPhone());
+        if (customer.getAddress() != null) {
+            document.put(ADDRESS, encode(customer.getAddress()));
+        }
+        if (customer.getDateOfBirth() != null) {
+            document.put(DATE_OF_BIRTH, encodeDateOfBirth(customer.getDateOfBirth()));
+        }
+        if (customer.getIncome() != null) {
+            document.put(INCOME, customer.getIncome());
+        }
+        putIfPresent(document, VERSION, customer.getVersion());
+        putIfPresent(document, SEARCH_NAMES, customer.getSearchNames());
+        // Always written, active customers carry an explicit null for the partial indexes
+        document.put(CustomerCriteria.DELETED_AT, customer.getDeletedAt() == null ? null : Date.from(customer.getDeletedAt()));
+        return document;
+    }
+
+    public static Customer decode(Document document) {
+        Customer customer = new Customer();
+        Object id = document.get(ID);
+        customer.setCustomerId(id == null ? null : id.toString());
+        customer.setFirstName(document.getString(FIRST_NAME));
+        customer.setLastName(document.getString(LAST_NAME));
+        customer.setEmail(document.getString(EMAIL));
+        customer.setPhone(document.getString(PHONE));
+        Object address = document.get(ADDRESS);
+        customer.setAddress(address instanceof Document embedded ? decodeAddress(embedded) : null);
+        customer.setDateOfBirth(decodeDateOfBirth(document.get(DATE_OF_BIRTH)));
+        Object income = document.get(INCOME);
+        customer.setIncome(income instanceof Number number ? number.doubleValue() : null);
+        Object version = document.get(VERSION);
+        customer.setVersion(version instanceof Number number ? number.longValue() : null);
+        List<?> searchNames = document.get(SEARCH_NAMES, List.class);
+        if (searchNames != null) {
+            List<String> names = new ArrayList<>(searchNames.size());
+            searchNames.forEach(name -> names.add((String) name));
+            customer.setSearchNames(names);
+        }
+        Date deletedAt = document.getDate(CustomerCriteria.DELETED_AT);
+        customer.setDeletedAt(deletedAt == null ? null : deletedAt.toInstant());
+        return customer;
+    }
+
+    public static Document encode(Address address) {
+        Document document = new Document();
+        putIfPresent(document, STREET, address.getStreet());
+        putIfPresent(document, CITY, address.getCity());
+        putIfPresent(document, STATE, address.getState());
+        return document;
+    }
+
+    public static Address decodeAddress(Document document) {
+        return new Address(document.getString(STREET), document.getString(CITY), document.getString(STATE));
+    }
+
+    /**
+     * A date at midnight in the JVM's default time zone, as the reflective mapping writes it.
+     */
+    static Date encodeDateOfBirth(LocalDate dateOfBirth) {
+        return Date.from(dateOfBirth.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Accepts the date written by {@link #encodeDateOfBirth(LocalDate)} as well as a compact day count since
+     * 1970-01-01.
+     */
+    static LocalDate decodeDateOfBirth(Object value) {
+        if (value instanceof Number days) {
+            return LocalDate.ofEpochDay(days.longValue());
+        }
+        if (value instanceof Date date) {
+            return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+        return null;
+    }
+
+    private static void putIfPresent(Document document, String field, Object value) {
+        if (value != null) {
+            document.put(field, value);
+        }
+    }
+
+    @WritingConverter
+    enum CustomerWriter implements Converter<Customer, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(Customer customer) {
+            return encode(customer);
+        }
+    }
+
+    @ReadingConverter
+    enum CustomerReader implements Converter<Document, Customer> {
+        INSTANCE;
+
+        @Override
+        public Customer convert(Document document) {
+            return decode(document);
+        }
+    }
+
+    @WritingConverter
+    enum AddressWriter implements Converter<Address, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(Address address) {
+            return encode(address);
+        }
+    }
+
+    @ReadingConverter
+    enum AddressReader implements Converter<Document, Address> {
+        INSTANCE;
+
+        @Override
+        public Address convert(Document document) {
+            return decodeAddress(document);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.afrisol.CustomerService.repository;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.Instant;
+
+/**
+ * Soft-delete predicates. They are written with {@code $type} rather than equality so they match the
+ * {@code partialFilterExpression} of the partial indexes exactly, which is what lets the planner use them.
+ */
+final class CustomerCriteria {
+
+    static final String DELETED_AT = "deletedAt";
+    private static final int BSON_DATE = 9;
+    private static final int BSON_NULL = 10;
+
+    private CustomerCriteria() {
+    }
+
+    /**
+     * Customers that have not been soft deleted.
+     */
+    static Criteria active() {
+        return Criteria.where(DELETED_AT).type(BSON_NULL);
+    }
+
+    /**
+     * Soft-deleted customers whose retention ended before {@code cutoff}.
+     */
+    static Criteria deletedBefore(Instant cutoff) {
+        return Criteria.where(DELETED_AT).type(BSON_DATE).lt(cutoff);
+    }
+}
@@ -0,0 +1,107 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.model.CustomerEmail;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Brings customer documents written before a field was introduced up to the current shape, so the
+ * optimistic-locking and ETag paths can rely on every document carrying a version, active-customer queries can
+ * rely on an explicit {@code deletedAt: null}, email lookups can rely on every customer holding an email
+ * claim, and name search can rely on every customer carrying its search names. Runs before the application
+ * reports ready and holds readiness for as long as it takes, so no request sees a document that has not been
+ * migrated; a failed migration fails startup rather than hiding unmigrated customers from active reads. Every
+ * step only touches documents still in the old shape, so a restart resumes where the last attempt stopped.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CustomerDocumentMigration implements ApplicationRunner {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public CustomerDocumentMigration(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Mono.when(initialiseField("version", 0L), initialiseField("deletedAt", null), claimLegacyEmails(),
+                            backfillSearchNames())
+                    .block();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Failed to migrate legacy customer documents", e);
+        }
+    }
+
+    private Mono<Void> initialiseField(String field, Object value) {
+        return mongoTemplate.updateMulti(
+                        Query.query(Criteria.where(field).exists(false)),
+                        new Update().set(field, value),
+                        Customer.class)
+                .doOnNext(result -> log.info("Initialised {} on {} legacy customer documents", field, result.getModifiedCount()))
+                .then();
+    }
+
+    /**
+     * Claims the emails of active customers created before claims existed, entirely server side. The first
+     * customer seen keeps a duplicated email; later duplicates stay unclaimed and are only reachable by id.
+     */
+    private Mono<Void> claimLegacyEmails() {
+        String claims = mongoTemplate.getCollectionName(CustomerEmail.class);
+        Aggregation aggregation = Aggregation.newAggregation(
+                context -> new Document("$match", new Document("email", new Document("$type", "string"))
+                        .append("deletedAt", null)),
+                context -> new Document("$project", new Document("_id",
+                                new Document("$toLower", new Document("$trim", new Document("input", "$email"))))
+                        .append("customerId", new Document("$toString", "$_id"))),
+                context -> new Document("$merge", new Document("into", claims)
+                        .append("on", "_id")
+                        .append("whenMatched", "keepExisting")
+                        .append("whenNotMatched", "insert")));
+        return mongoTemplate.aggregate(aggregation, Customer.class, Document.class)
+                .then()
+                .doOnSuccess(unused -> log.info("Claimed emails of legacy customers"));
+    }
+
+    /**
+     * Computes search names for customers saved before they existed. Normalisation runs in Java so legacy names
+     * match exactly what {@link CustomerNames} writes for new ones; updates go out in unordered bulk writes.
+     * An interrupted backfill resumes on the next start, as only customers still missing the field are read.
+     */
+    private Mono<Void> backfillSearchNames() {
+        Query missing = Query.query(Criteria.where("searchNames").exists(false));
+        missing.fields().include("firstName", "lastName");
+        return mongoTemplate.find(missing, Customer.class)
+                .buffer(BACKFILL_BATCH_SIZE)
+                .concatMap(batch -> {
+                    ReactiveBulkOperations bulk =
+                            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class);
+                    batch.forEach(customer -> bulk.updateOne(
+                            Query.query(Criteria.where("_id").is(customer.getCustomerId())),
+                            new Update().set("searchNames",
+                                    CustomerNames.searchNames(customer.getFirstName(), customer.getLastName()))));
+                    return bulk.execute();
+                })
+                .reduce(0L, (total, result) -> total + result.getModifiedCount())
+                .doOnNext(total -> log.info("Initialised searchNames on {} legacy customer documents", total))
+                .then();
+    }
+}
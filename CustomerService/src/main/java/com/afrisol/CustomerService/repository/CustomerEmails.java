@@ -0,0 +1,21 @@
+package com.afrisol.CustomerService.repository;
+
+import java.util.Locale;
+
+/**
+ * Normalised form of customer emails, shared by the {@code customer_emails} claims and every caller that matches
+ * emails against them, so both sides always agree on which addresses are the same.
+ */
+public final class CustomerEmails {
+
+    private CustomerEmails() {
+    }
+
+    /**
+     * Trimmed and lower case: {@code " John@Test.com "} becomes {@code "john@test.com"}. Returns {@code null} for
+     * {@code null}.
+     */
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
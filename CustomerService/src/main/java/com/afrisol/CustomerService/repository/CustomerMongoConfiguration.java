@@ -0,0 +1,18 @@
+package com.afrisol.CustomerService.repository;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * Registers {@link CustomerCodec} in place of Spring Boot's default, empty custom conversions, so the mapping
+ * converter hands customers and addresses to it instead of mapping them reflectively.
+ */
+@Configuration
+public class CustomerMongoConfiguration {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(CustomerCodec.converters());
+    }
+}
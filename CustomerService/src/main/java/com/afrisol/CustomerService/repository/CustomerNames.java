@@ -0,0 +1,63 @@
+package com.afrisol.CustomerService.repository;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalised forms of customer names, shared by the writes that maintain {@code searchNames} and the searches
+ * that query it, so both sides always agree on what a name looks like.
+ */
+public final class CustomerNames {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern APOSTROPHES = Pattern.compile("['\u2019]");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private CustomerNames() {
+    }
+
+    /**
+     * Lower case, without accents or apostrophes, and with every other run of punctuation or whitespace
+     * collapsed to a single space: {@code "  O'Neil-Smith "} becomes {@code "oneil smith"}.
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        folded = APOSTROPHES.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll("");
+        return SEPARATORS.matcher(folded).replaceAll(" ").trim();
+    }
+
+    /**
+     * Every form a customer can be found by with a prefix query: each name part on its own, and the full name
+     * in both orders, so {@code "john d"} and {@code "doe j"} are prefixes too.
+     */
+    public static List<String> searchNames(String firstName, String lastName) {
+        String first = normalize(firstName);
+        String last = normalize(lastName);
+        Set<String> names = new LinkedHashSet<>();
+        for (String part : (first + " " + last).trim().split(" ")) {
+            if (!part.isEmpty()) {
+                names.add(part);
+            }
+        }
+        if (!first.isEmpty() && !last.isEmpty()) {
+            names.add(first + " " + last);
+            names.add(last + " " + first);
+        }
+        return List.copyOf(names);
+    }
+
+    /**
+     * Smallest string greater than every string starting with {@code prefix}, for an index range scan.
+     */
+    static String prefixUpperBound(String prefix) {
+        int last = prefix.codePointBefore(prefix.length());
+        return prefix.substring(0, prefix.length() - Character.charCount(last)) + Character.toString(last + 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.model.Customer;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Customer queries routed by shard key. Emails resolve to customer ids through the {@code customer_emails}
+ * claims, so every query below except {@link #findAll()}, {@link #count()} and {@link #deleteAll()} targets a
+ * single shard of each collection instead of scattering to all of them. Reads only return active customers,
+ * including the {@code findById}, {@code existsById} and {@code count} inherited from the CRUD repository;
+ * soft-deleted ones are invisible until the archiver moves them out of the collection.
+ */
+public interface CustomerRepositoryCustom {
+    Mono<Customer> findById(String customerId);
+    Mono<Customer> findById(Publisher<String> customerId);
+    Mono<Boolean> existsById(String customerId);
+    Mono<Boolean> existsById(Publisher<String> customerId);
+    Flux<Customer> findAll();
+    Flux<Customer> findAllById(Iterable<String> customerIds);
+    Mono<Long> count();
+    /**
+     * Whether an active customer holds the email. Claims left behind by customers that are gone do not count.
+     */
+    Mono<Boolean> existsByEmail(String email);
+    Mono<Customer> findByEmail(String email);
+    Flux<Customer> findByEmailIn(Collection<String> emails);
+
+    /**
+     * Projects only the version of the customer with the given email, so conditional reads never decode the
+     * full document.
+     */
+    Mono<Customer> findVersionByEmail(String email);
+
+    /**
+     * Saves the customer and keeps its email claim and search names in step. Fails with
+     * {@link com.afrisol.CustomerService.exception.CustomerAlreadyExistsException} when another customer holds
+     * the email. A claim whose customer is gone or deleted is taken over instead.
+     */
+    <S extends Customer> Mono<S> save(S customer);
+
+    /**
+     * Saves the customers one after the other through {@link #save(Customer)}, so each keeps its claim in step.
+     */
+    <S extends Customer> Flux<S> saveAll(Iterable<S> customers);
+    <S extends Customer> Flux<S> saveAll(Publisher<S> customers);
+
+    /**
+     * Marks the customer deleted and releases its email claim. Fails with
+     * {@link org.springframework.dao.OptimisticLockingFailureException} when the customer changed since it was
+     * read or is already deleted.
+     */
+    Mono<Void> softDelete(Customer customer);
+
+    /**
+     * Removes the customer document for good and releases its email claim. When the customer carries a version,
+     * fails with {@link org.springframework.dao.OptimisticLockingFailureException} if it changed since it was read
+     * or is already gone; without one, removing a missing customer is a no-op.
+     */
+    Mono<Void> delete(Customer customer);
+
+    /**
+     * Removes customers one after the other through {@link #delete(Customer)}, so each releases its claim.
+     */
+    Mono<Void> deleteById(String customerId);
+    Mono<Void> deleteById(Publisher<String> customerId);
+    Mono<Void> deleteAllById(Iterable<? extends String> customerIds);
+    Mono<Void> deleteAll(Iterable<? extends Customer> customers);
+    Mono<Void> deleteAll(Publisher<? extends Customer> customers);
+
+    /**
+     * Removes every customer, deleted or not, together with every email claim.
+     */
+    Mono<Void> deleteAll();
+}
@@ -0,0 +1,314 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.exception.CustomerAlreadyExistsException;
+import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.model.CustomerEmail;
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Both {@code customers} and {@code customer_emails} are sharded on hashed {@code _id}:
+ * <pre>
+ * sh.shardCollection("customer_service_db.customers", { _id: "hashed" })
+ * sh.shardCollection("customer_service_db.customer_emails", { _id: "hashed" })
+ * </pre>
+ * Every query issued here, apart from {@link #findAll()}, {@link #count()} and {@link #deleteAll()}, filters on
+ * {@code _id}, either by equality or with {@code $in}, which mongos routes to the shards owning those keys only.
+ * Customer reads also carry {@link CustomerCriteria#active()}, so soft-deleted documents never reach the service
+ * layer.
+ */
+public class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+    static final String SHARD_KEY = "_id";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public CustomerRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Customer> findById(String customerId) {
+        return mongoTemplate.findOne(activeByShardKey(customerId), Customer.class);
+    }
+
+    @Override
+    public Mono<Customer> findById(Publisher<String> customerId) {
+        return Mono.from(customerId).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String customerId) {
+        return mongoTemplate.exists(activeByShardKey(customerId), Customer.class);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> customerId) {
+        return Mono.from(customerId).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Customer> findAll() {
+        return mongoTemplate.find(Query.query(CustomerCriteria.active()), Customer.class);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return mongoTemplate.count(Query.query(CustomerCriteria.active()), Customer.class);
+    }
+
+    @Override
+    public Flux<Customer> findAllById(Iterable<String> customerIds) {
+        List<String> ids = new ArrayList<>();
+        customerIds.forEach(ids::add);
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return mongoTemplate.find(Query.query(Criteria.where(SHARD_KEY).in(ids)).addCriteria(CustomerCriteria.active()), Customer.class);
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        if (email == null) {
+            return Mono.just(false);
+        }
+        // A claim left behind by a customer that is gone does not count, claimEmail hands such claims over
+        return resolveCustomerId(email)
+                .flatMap(this::existsById)
+                .defaultIfEmpty(false);
+    }
+
+    @Override
+    public Mono<Customer> findByEmail(String email) {
+        return resolveCustomerId(email)
+                .flatMap(customerId -> mongoTemplate.findOne(activeByShardKey(customerId), Customer.class));
+    }
+
+    @Override
+    public Flux<Customer> findByEmailIn(Collection<String> emails) {
+        List<String> keys = emails.stream()
+                .filter(Objects::nonNull)
+                .map(CustomerEmails::normalize)
+                .distinct()
+                .toList();
+        if (keys.isEmpty()) {
+            return Flux.empty();
+        }
+        return mongoTemplate.find(Query.query(Criteria.where(SHARD_KEY).in(keys)), CustomerEmail.class)
+                .map(CustomerEmail::getCustomerId)
+                .collectList()
+                .flatMapMany(customerIds -> customerIds.isEmpty()
+                        ? Flux.empty()
+                        : findAllById(customerIds));
+    }
+
+    @Override
+    public Mono<Customer> findVersionByEmail(String email) {
+        return resolveCustomerId(email)
+                .flatMap(customerId -> {
+                    Query query = activeByShardKey(customerId);
+                    query.fields().include("version");
+                    return mongoTemplate.findOne(query, Customer.class);
+                });
+    }
+
+    @Override
+    public <S extends Customer> Mono<S> save(S customer) {
+        customer.setSearchNames(CustomerNames.searchNames(customer.getFirstName(), customer.getLastName()));
+        return customer.getCustomerId() == null ? insert(customer) : update(customer);
+    }
+
+    @Override
+    public <S extends Customer> Flux<S> saveAll(Iterable<S> customers) {
+        return Flux.fromIterable(customers).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends Customer> Flux<S> saveAll(Publisher<S> customers) {
+        return Flux.from(customers).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Void> softDelete(Customer customer) {
+        Query query = activeByShardKey(customer.getCustomerId());
+        if (customer.getVersion() != null) {
+            query.addCriteria(Criteria.where("version").is(customer.getVersion()));
+        }
+        Update update = new Update()
+                .set(CustomerCriteria.DELETED_AT, Instant.now())
+                .inc("version", 1);
+        return mongoTemplate.updateFirst(query, update, Customer.class)
+                .flatMap(result -> result.getModifiedCount() == 0
+                        ? Mono.<Void>error(new OptimisticLockingFailureException(
+                                "Customer " + customer.getCustomerId() + " was modified or deleted concurrently"))
+                        : releaseEmail(customer.getEmail(), customer.getCustomerId()))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> delete(Customer customer) {
+        Query query = byShardKey(customer.getCustomerId());
+        if (customer.getVersion() != null) {
+            query.addCriteria(Criteria.where("version").is(customer.getVersion()));
+        }
+        return mongoTemplate.remove(query, Customer.class)
+                .flatMap(result -> {
+                    if (result.getDeletedCount() > 0) {
+                        return releaseEmail(customer.getEmail(), customer.getCustomerId());
+                    }
+                    if (customer.getVersion() != null) {
+                        return Mono.<Void>error(new OptimisticLockingFailureException(
+                                "Customer " + customer.getCustomerId() + " was modified or deleted concurrently"));
+                    }
+                    return Mono.<Void>empty();
+                })
+                .then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(String customerId) {
+        Query query = byShardKey(customerId);
+        query.fields().include("email");
+        // The projection carries no version, so the delete below is unconditional
+        return mongoTemplate.findOne(query, Customer.class)
+                .flatMap(this::delete);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> customerId) {
+        return Mono.from(customerId).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> customerIds) {
+        return Flux.fromIterable(customerIds).concatMap(this::deleteById).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Customer> customers) {
+        return Flux.fromIterable(customers).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Customer> customers) {
+        return Flux.from(customers).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        // Customers go first, so claims left behind by a failure name missing customers and get reclaimed
+        return mongoTemplate.remove(new Query(), Customer.class)
+                .then(mongoTemplate.remove(new Query(), CustomerEmail.class))
+                .then();
+    }
+
+    private <S extends Customer> Mono<S> insert(S customer) {
+        // The customer is written before its claim, so a claim naming a customer that does not exist is always
+        // left over from a failed write and never from an insert still in progress, which lets claimEmail take
+        // it over safely. A customer whose email turns out to be taken is removed again.
+        String customerId = new ObjectId().toHexString();
+        customer.setCustomerId(customerId);
+        return mongoTemplate.insert(customer)
+                .flatMap(inserted -> claimEmail(inserted.getEmail(), customerId)
+                        .thenReturn(inserted)
+                        .onErrorResume(e -> mongoTemplate.remove(byShardKey(customerId), Customer.class)
+                                .then(Mono.error(e))));
+    }
+
+    private <S extends Customer> Mono<S> update(S customer) {
+        String customerId = customer.getCustomerId();
+        Query currentEmail = byShardKey(customerId);
+        currentEmail.fields().include("email");
+        return mongoTemplate.findOne(currentEmail, Customer.class)
+                .map(current -> Optional.ofNullable(current.getEmail()))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(previousEmail -> {
+                    String previous = previousEmail.map(CustomerEmails::normalize).orElse(null);
+                    String next = CustomerEmails.normalize(customer.getEmail());
+                    if (Objects.equals(previous, next)) {
+                        return mongoTemplate.save(customer);
+                    }
+                    return claimEmail(next, customerId)
+                            .then(Mono.defer(() -> mongoTemplate.save(customer)
+                                    .onErrorResume(e -> releaseEmail(next, customerId).then(Mono.error(e)))))
+                            .flatMap(saved -> releaseEmail(previous, customerId).thenReturn(saved));
+                });
+    }
+
+    private Mono<String> resolveCustomerId(String email) {
+        if (email == null) {
+            return Mono.empty();
+        }
+        return mongoTemplate.findOne(byShardKey(CustomerEmails.normalize(email)), CustomerEmail.class)
+                .map(CustomerEmail::getCustomerId);
+    }
+
+    private Mono<Void> claimEmail(String email, String customerId) {
+        if (email == null) {
+            return Mono.empty();
+        }
+        String key = CustomerEmails.normalize(email);
+        return mongoTemplate.insert(new CustomerEmail(key, customerId))
+                .thenReturn(true)
+                .onErrorResume(DuplicateKeyException.class, e -> mongoTemplate.findOne(byShardKey(key), CustomerEmail.class)
+                        .flatMap(claim -> customerId.equals(claim.getCustomerId())
+                                ? Mono.just(true)
+                                : reclaimOrphan(claim, customerId))
+                        .defaultIfEmpty(false))
+                .flatMap(claimed -> claimed
+                        ? Mono.<Void>empty()
+                        : Mono.error(new CustomerAlreadyExistsException("Customer already exists")));
+    }
+
+    /**
+     * Hands a claim over to {@code customerId} when the customer holding it is gone or deleted, which happens
+     * when a write failed between touching the customer and its claim. Left alone, such a claim would block
+     * the email for good.
+     *
+     * @return whether the claim now belongs to {@code customerId}
+     */
+    private Mono<Boolean> reclaimOrphan(CustomerEmail claim, String customerId) {
+        return existsById(claim.getCustomerId())
+                .flatMap(held -> {
+                    if (held) {
+                        return Mono.just(false);
+                    }
+                    Query query = byShardKey(claim.getEmail());
+                    query.addCriteria(Criteria.where("customerId").is(claim.getCustomerId()));
+                    return mongoTemplate.updateFirst(query, Update.update("customerId", customerId), CustomerEmail.class)
+                            .map(result -> result.getModifiedCount() > 0);
+                });
+    }
+
+    private Mono<Void> releaseEmail(String email, String customerId) {
+        if (email == null) {
+            return Mono.empty();
+        }
+        Query query = byShardKey(CustomerEmails.normalize(email));
+        query.addCriteria(Criteria.where("customerId").is(customerId));
+        return mongoTemplate.remove(query, CustomerEmail.class).then();
+    }
+
+    private static Query byShardKey(String key) {
+        return Query.query(Criteria.where(SHARD_KEY).is(key));
+    }
+
+    private static Query activeByShardKey(String key) {
+        return byShardKey(key).addCriteria(CustomerCriteria.active());
+    }
+}
@@ -0,0 +1,48 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.model.Customer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Name prefix queries over {@code searchNames}. Each query is a single range scan of the
+ * {@code active_name_prefixes} partial index, never a regular expression, and only loads the fields a search
+ * result needs. Names are not the shard key, so these queries go to every shard; the limit and time budget
+ * bound what each shard does.
+ */
+@Repository
+public class CustomerSearchRepository {
+
+    static final String SEARCH_NAMES = "searchNames";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Duration maxTime;
+
+    public CustomerSearchRepository(ReactiveMongoTemplate mongoTemplate,
+                                    @Value("${customer.search.max-time:200ms}") Duration maxTime) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxTime = maxTime;
+    }
+
+    /**
+     * Active customers with a search name starting with {@code prefix}, which must already be normalised with
+     * {@link CustomerNames#normalize(String)}.
+     */
+    public Flux<Customer> findByNamePrefix(String prefix, int limit) {
+        if (prefix.isEmpty()) {
+            return Flux.empty();
+        }
+        Query query = Query.query(Criteria.where(SEARCH_NAMES).gte(prefix).lt(CustomerNames.prefixUpperBound(prefix)))
+                .addCriteria(CustomerCriteria.active())
+                .limit(limit)
+                .maxTime(maxTime);
+        query.fields().include("firstName", "lastName", "phone", "version", SEARCH_NAMES);
+        return mongoTemplate.find(query, Customer.class);
+    }
+}
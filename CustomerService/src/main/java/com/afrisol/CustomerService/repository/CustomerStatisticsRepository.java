@@ -0,0 +1,128 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.dto.CustomerStatisticsDto;
+import com.afrisol.CustomerService.dto.StatisticsBucketDto;
+import com.afrisol.CustomerService.model.Customer;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Computes portfolio statistics server side in a single {@code $facet} aggregation, so callers never have to
+ * stream the whole collection. Every aggregation carries a time budget and the configured {@code allowDiskUse}
+ * setting, which keeps a heavy run from starving the regular customer traffic. Soft-deleted customers are
+ * filtered out before the facets run.
+ */
+@Repository
+public class CustomerStatisticsRepository {
+
+    static final List<Double> INCOME_BOUNDARIES = List.of(0d, 5_000d, 10_000d, 25_000d, 50_000d, 100_000d, Double.MAX_VALUE);
+    static final List<String> INCOME_LABELS = List.of("0-4999", "5000-9999", "10000-24999", "25000-49999", "50000-99999", "100000+");
+    static final List<Integer> AGE_BOUNDARIES_IN_YEARS = List.of(150, 65, 50, 35, 25, 18, 0);
+    static final List<String> AGE_LABELS = List.of("65+", "50-64", "35-49", "25-34", "18-24", "0-17");
+    static final int CITY_LIMIT = 100;
+    static final String UNKNOWN = "unknown";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean allowDiskUse;
+    private final Duration maxTime;
+
+    public CustomerStatisticsRepository(ReactiveMongoTemplate mongoTemplate,
+                                        @Value("${customer.statistics.allow-disk-use:false}") boolean allowDiskUse,
+                                        @Value("${customer.statistics.max-time:5s}") Duration maxTime) {
+        this.mongoTemplate = mongoTemplate;
+        this.allowDiskUse = allowDiskUse;
+        this.maxTime = maxTime;
+    }
+
+    public Mono<CustomerStatisticsDto> aggregateStatistics() {
+        List<Date> ageBoundaries = ageBoundaries(LocalDate.now());
+        TypedAggregation<Customer> aggregation = Aggregation.newAggregation(Customer.class,
+                        Aggregation.match(CustomerCriteria.active()),
+                        Aggregation.facet(Aggregation.count().as("count")).as("total")
+                                .and(Aggregation.group("address.state").count().as("count"),
+                                        Aggregation.sort(Sort.Direction.DESC, "count")).as("byState")
+                                .and(Aggregation.group("address.state", "address.city").count().as("count"),
+                                        Aggregation.sort(Sort.Direction.DESC, "count"),
+                                        Aggregation.limit(CITY_LIMIT)).as("byCity")
+                                .and(Aggregation.bucket("income")
+                                        .withBoundaries(INCOME_BOUNDARIES.toArray())
+                                        .withDefaultBucket(UNKNOWN)
+                                        .andOutputCount().as("count")).as("byIncome")
+                                .and(Aggregation.bucket("dateOfBirth")
+                                        .withBoundaries(ageBoundaries.toArray())
+                                        .withDefaultBucket(UNKNOWN)
+                                        .andOutputCount().as("count")).as("byAge"))
+                .withOptions(AggregationOptions.builder()
+                        .allowDiskUse(allowDiskUse)
+                        .maxTime(maxTime)
+                        .build());
+        return mongoTemplate.aggregate(aggregation, Document.class)
+                .next()
+                .map(result -> toStatistics(result, ageBoundaries));
+    }
+
+    /**
+     * Lower bounds of the age bands as dates of birth, oldest first, as {@code $bucket} needs ascending
+     * boundaries. Someone born exactly N years ago today is already N, hence the extra day. Boundaries are in
+     * the form {@link CustomerCodec} stores dates of birth in.
+     */
+    static List<Date> ageBoundaries(LocalDate today) {
+        return AGE_BOUNDARIES_IN_YEARS.stream()
+                .map(years -> CustomerCodec.encodeDateOfBirth(today.minusYears(years).plusDays(1)))
+                .toList();
+    }
+
+    private CustomerStatisticsDto toStatistics(Document result, List<Date> ageBoundaries) {
+        List<Document> total = result.getList("total", Document.class);
+        return CustomerStatisticsDto.builder()
+                .totalCustomers(total.isEmpty() ? 0 : count(total.get(0)))
+                .customersByState(toBuckets(result.getList("byState", Document.class),
+                        id -> id == null ? UNKNOWN : id.toString()))
+                .customersByCity(toBuckets(result.getList("byCity", Document.class), this::cityLabel))
+                .incomeBands(toBuckets(result.getList("byIncome", Document.class),
+                        id -> label(id, INCOME_BOUNDARIES, INCOME_LABELS)))
+                .ageBands(toBuckets(result.getList("byAge", Document.class),
+                        id -> label(id, ageBoundaries, AGE_LABELS)))
+                .generatedAt(Instant.now())
+                .build();
+    }
+
+    private List<StatisticsBucketDto> toBuckets(List<Document> documents, Function<Object, String> labeler) {
+        return documents.stream()
+                .map(document -> new StatisticsBucketDto(labeler.apply(document.get("_id")), count(document)))
+                .toList();
+    }
+
+    private String cityLabel(Object id) {
+        if (!(id instanceof Document location) || location.get("city") == null) {
+            return UNKNOWN;
+        }
+        return location.get("state") == null
+                ? location.getString("city")
+                : location.getString("city") + ", " + location.getString("state");
+    }
+
+    private static String label(Object lowerBound, List<?> boundaries, List<String> labels) {
+        int index = boundaries.indexOf(lowerBound);
+        return index < 0 || index >= labels.size() ? UNKNOWN : labels.get(index);
+    }
+
+    private static long count(Document document) {
+        Object count = document.get("count");
+        return count instanceof Number number ? number.longValue() : 0;
+    }
+}
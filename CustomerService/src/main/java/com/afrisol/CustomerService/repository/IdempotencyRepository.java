@@ -0,0 +1,79 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.idempotency.IdempotencyStore;
+import com.afrisol.CustomerService.model.IdempotencyRecord;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Idempotency records, sharded on hashed {@code _id} like the customer collections, so every call here is a
+ * single-shard operation on the record's key.
+ */
+@Repository
+public class IdempotencyRepository implements IdempotencyStore {
+
+    private static final String STATUS = "status";
+    private static final String CLAIMED_AT = "claimedAt";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public IdempotencyRepository(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<IdempotencyRecord> findById(String id) {
+        return mongoTemplate.findById(id, IdempotencyRecord.class);
+    }
+
+    @Override
+    public Mono<Boolean> claim(String id, String requestHash) {
+        IdempotencyRecord claim = IdempotencyRecord.builder()
+                .id(id)
+                .requestHash(requestHash)
+                .claimedAt(Instant.now())
+                .build();
+        return mongoTemplate.insert(claim)
+                .thenReturn(true)
+                .onErrorReturn(DuplicateKeyException.class, false);
+    }
+
+    @Override
+    public Mono<Boolean> takeOver(String id, String requestHash, Instant staleBefore) {
+        Query stale = byId(id)
+                .addCriteria(Criteria.where(STATUS).is(null))
+                .addCriteria(Criteria.where(CLAIMED_AT).lt(staleBefore));
+        return mongoTemplate.updateFirst(stale,
+                        new Update().set("requestHash", requestHash).set(CLAIMED_AT, Instant.now()),
+                        IdempotencyRecord.class)
+                .map(result -> result.getModifiedCount() == 1);
+    }
+
+    @Override
+    public Mono<Void> complete(IdempotencyRecord record) {
+        return mongoTemplate.updateFirst(byId(record.getId()),
+                        new Update()
+                                .set(STATUS, record.getStatus())
+                                .set("eTag", record.getETag())
+                                .set("response", record.getResponse()),
+                        IdempotencyRecord.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> release(String id) {
+        return mongoTemplate.remove(byId(id).addCriteria(Criteria.where(STATUS).is(null)), IdempotencyRecord.class)
+                .then();
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+}
@@ -0,0 +1,130 @@
+package com.afrisol.CustomerService.repository;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoNodeIsRecoveringException;
+import com.mongodb.MongoNotPrimaryException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoSocketOpenException;
+import com.mongodb.MongoTimeoutException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Timeout, retry and circuit-breaker policy applied to every repository call. Each attempt is bounded by the
+ * operation's timeout and recorded by the breaker; only failures that cannot have applied a change twice are
+ * retried, with exponential backoff and jitter, and never while the breaker is open.
+ */
+@Slf4j
+public class RepositoryResilience {
+
+    private static final String RETRYABLE_WRITE_ERROR = "RetryableWriteError";
+
+    private final RepositoryResilienceProperties properties;
+    private final CircuitBreaker circuitBreaker;
+
+    public RepositoryResilience(RepositoryResilienceProperties properties, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.circuitBreaker = circuitBreaker;
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Circuit breaker {} moved from {} to {}", event.getCircuitBreakerName(),
+                    event.getStateTransition().getFromState(), event.getStateTransition().getToState());
+            meterRegistry.counter("customer.repository.circuitbreaker.transitions",
+                    "name", event.getCircuitBreakerName(),
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name()).increment();
+        });
+    }
+
+    public <T> Mono<T> decorate(String operation, Mono<T> call) {
+        boolean read = isRead(operation);
+        return call.timeout(timeoutFor(operation, read))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .retryWhen(retrySpec(operation, read ? RepositoryResilience::isTransient : RepositoryResilience::isRetryableWrite));
+    }
+
+    public <T> Flux<T> decorate(String operation, Flux<T> call) {
+        boolean read = isRead(operation);
+        return Flux.defer(() -> {
+            // Resubscribing after elements were emitted would replay them, so only retry before the first one
+            AtomicBoolean emitted = new AtomicBoolean();
+            Predicate<Throwable> retryable = read ? RepositoryResilience::isTransient : RepositoryResilience::isRetryableWrite;
+            return call.timeout(timeoutFor(operation, read))
+                    .doOnNext(element -> emitted.set(true))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .retryWhen(retrySpec(operation, retryable.and(e -> !emitted.get())));
+        });
+    }
+
+    private Retry retrySpec(String operation, Predicate<Throwable> retryable) {
+        return Retry.backoff(Math.max(0, properties.getMaxAttempts() - 1), properties.getMinBackoff())
+                .maxBackoff(properties.getMaxBackoff())
+                .jitter(properties.getJitter())
+                .filter(retryable)
+                .doBeforeRetry(signal -> log.warn("Retrying repository operation {} after attempt {} failed: {}",
+                        operation, signal.totalRetries() + 1, signal.failure().toString()))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private Duration timeoutFor(String operation, boolean read) {
+        Duration timeout = properties.getTimeouts().get(operation);
+        if (timeout != null) {
+            return timeout;
+        }
+        return read ? properties.getReadTimeout() : properties.getWriteTimeout();
+    }
+
+    /**
+     * Failures this policy raises itself when the store cannot serve a call: the breaker is open or the call
+     * timed out. The exception handler answers them with 503 and 504, so callers must pass them on unwrapped.
+     */
+    public static boolean isUnavailable(Throwable failure) {
+        return failure instanceof CallNotPermittedException || failure instanceof TimeoutException;
+    }
+
+    static boolean isRead(String operation) {
+        return operation.startsWith("find") || operation.startsWith("exists") || operation.startsWith("count");
+    }
+
+    /**
+     * Failures a read can safely be repeated after: timeouts, lost connections and replica set failover.
+     */
+    static boolean isTransient(Throwable failure) {
+        for (Throwable e = failure; e != null; e = e.getCause()) {
+            if (e instanceof TimeoutException
+                    || e instanceof MongoSocketException
+                    || e instanceof MongoTimeoutException
+                    || e instanceof MongoNotPrimaryException
+                    || e instanceof MongoNodeIsRecoveringException
+                    || (e instanceof MongoException mongoException && mongoException.hasErrorLabel(RETRYABLE_WRITE_ERROR))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Failures after which a write is known not to have been applied: the server labelled it retryable, or it
+     * never left the client because no connection or server was available.
+     */
+    static boolean isRetryableWrite(Throwable failure) {
+        for (Throwable e = failure; e != null; e = e.getCause()) {
+            if (e instanceof MongoSocketOpenException
+                    || e instanceof MongoTimeoutException
+                    || (e instanceof MongoException mongoException && mongoException.hasErrorLabel(RETRYABLE_WRITE_ERROR))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
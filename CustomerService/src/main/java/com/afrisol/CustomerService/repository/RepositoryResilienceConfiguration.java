@@ -0,0 +1,34 @@
+package com.afrisol.CustomerService.repository;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Exposes the resilient decorator as the primary {@link CustomerRepository}, so services are wired with it while
+ * the Spring Data repository stays reachable by its bean name.
+ */
+@Configuration
+@EnableConfigurationProperties(RepositoryResilienceProperties.class)
+public class RepositoryResilienceConfiguration {
+
+    static final String CIRCUIT_BREAKER = "customerRepository";
+
+    @Bean
+    public RepositoryResilience customerRepositoryResilience(RepositoryResilienceProperties properties,
+                                                             CircuitBreakerRegistry circuitBreakerRegistry,
+                                                             MeterRegistry meterRegistry) {
+        return new RepositoryResilience(properties, circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public CustomerRepository resilientCustomerRepository(@Qualifier("customerRepository") CustomerRepository customerRepository,
+                                                          RepositoryResilience customerRepositoryResilience) {
+        return ResilientCustomerRepository.decorate(customerRepository, customerRepositoryResilience);
+    }
+}
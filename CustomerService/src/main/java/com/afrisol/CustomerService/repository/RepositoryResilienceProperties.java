@@ -0,0 +1,26 @@
+package com.afrisol.CustomerService.repository;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "customer.repository.resilience")
+public class RepositoryResilienceProperties {
+    private Duration readTimeout = Duration.ofSeconds(2);
+    private Duration writeTimeout = Duration.ofSeconds(5);
+    /**
+     * Timeouts of individual repository methods, keyed by method name, overriding the read/write defaults.
+     */
+    private Map<String, Duration> timeouts = new HashMap<>();
+    /**
+     * Total attempts, including the first one, of calls that are safe to retry.
+     */
+    private int maxAttempts = 3;
+    private Duration minBackoff = Duration.ofMillis(50);
+    private Duration maxBackoff = Duration.ofSeconds(1);
+    private double jitter = 0.5;
+}
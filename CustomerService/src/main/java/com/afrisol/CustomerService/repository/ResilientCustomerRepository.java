@@ -0,0 +1,59 @@
+package com.afrisol.CustomerService.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Decorates every reactive {@link CustomerRepository} method with {@link RepositoryResilience}, so new
+ * repository methods are covered without touching this class.
+ */
+public final class ResilientCustomerRepository implements InvocationHandler {
+
+    private final CustomerRepository delegate;
+    private final RepositoryResilience resilience;
+
+    private ResilientCustomerRepository(CustomerRepository delegate, RepositoryResilience resilience) {
+        this.delegate = delegate;
+        this.resilience = resilience;
+    }
+
+    public static CustomerRepository decorate(CustomerRepository delegate, RepositoryResilience resilience) {
+        return (CustomerRepository) Proxy.newProxyInstance(
+                CustomerRepository.class.getClassLoader(),
+                new Class<?>[]{CustomerRepository.class},
+                new ResilientCustomerRepository(delegate, resilience));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "Resilient " + delegate;
+                default -> invokeDelegate(method, args);
+            };
+        }
+        Object result = invokeDelegate(method, args);
+        if (result instanceof Mono<?> mono) {
+            return resilience.decorate(method.getName(), mono);
+        }
+        if (result instanceof Flux<?> flux) {
+            return resilience.decorate(method.getName(), flux);
+        }
+        return result;
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.afrisol.CustomerService.service;
+
+import com.afrisol.CustomerService.dto.CustomerHistoryDto;
+import reactor.core.publisher.Mono;
+
+public interface CustomerHistoryService {
+    /**
+     * One page of the changes made to a customer, newest first. Changes are written asynchronously, so the
+     * most recent ones can take up to a flush interval to appear.
+     */
+    Mono<CustomerHistoryDto> getHistory(String customerId, int page, int size, String requestID);
+}
@@ -0,0 +1,40 @@
+package com.afrisol.CustomerService.service;
+
+import com.afrisol.CustomerService.dto.CustomerHistoryDto;
+import com.afrisol.CustomerService.repository.CustomerAuditRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@Service
+public class CustomerHistoryServiceImpl implements CustomerHistoryService {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final CustomerAuditRepository auditRepository;
+
+    public CustomerHistoryServiceImpl(CustomerAuditRepository auditRepository) {
+        this.auditRepository = auditRepository;
+    }
+
+    @Override
+    public Mono<CustomerHistoryDto> getHistory(String customerId, int page, int size, String requestID) {
+        if (customerId == null || customerId.isBlank()) {
+            return Mono.error(new IllegalArgumentException("Invalid customer data"));
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.error(new IllegalArgumentException("Page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE));
+        }
+        log.info("Getting history page {} of customer {} with requestID {}", page, customerId, requestID);
+        return Mono.zip(auditRepository.findHistory(customerId, page, size).collectList(),
+                        auditRepository.countHistory(customerId))
+                .map(history -> CustomerHistoryDto.builder()
+                        .customerId(customerId)
+                        .page(page)
+                        .size(size)
+                        .totalChanges(history.getT2())
+                        .changes(history.getT1())
+                        .build());
+    }
+}
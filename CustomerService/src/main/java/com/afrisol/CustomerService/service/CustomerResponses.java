@@ -0,0 +1,24 @@
+package com.afrisol.CustomerService.service;
+
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.model.Customer;
+
+/**
+ * The single mapping from a stored customer to what the API returns, shared by every service answering with
+ * customers so their responses cannot drift apart.
+ */
+final class CustomerResponses {
+
+    private CustomerResponses() {
+    }
+
+    static CustomerResponseDto from(Customer customer) {
+        return CustomerResponseDto.builder()
+                .customerId(customer.getCustomerId())
+                .firstName(customer.getFirstName())
+                .lastName(customer.getLastName())
+                .phone(customer.getPhone())
+                .version(customer.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.afrisol.CustomerService.service;
+
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import reactor.core.publisher.Flux;
+
+public interface CustomerSearchService {
+    /**
+     * Typeahead search over first and last names. Emits at most {@code limit} active customers, best match
+     * first: exact names, then names starting with the query, then names within a small edit distance of it.
+     * Fails with a {@link java.util.concurrent.TimeoutException} when the search does not finish within its
+     * latency budget.
+     */
+    Flux<CustomerResponseDto> searchCustomers(String query, int limit, String requestID);
+}
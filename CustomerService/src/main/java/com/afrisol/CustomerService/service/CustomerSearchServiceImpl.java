@@ -0,0 +1,208 @@
+package com.afrisol.CustomerService.service;
+
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.repository.CustomerNames;
+import com.afrisol.CustomerService.repository.CustomerSearchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+public class CustomerSearchServiceImpl implements CustomerSearchService {
+
+    static final int MIN_QUERY_LENGTH = 2;
+    static final int MAX_LIMIT = 50;
+    static final int CANDIDATE_LIMIT = 200;
+    /**
+     * Length of the shortest prefix that widens a search for near misses. Typos within it are never found.
+     * Where names sharing a prefix fill the candidate limit, the prefix is lengthened one character at a time
+     * until its range fits, so a crowded prefix narrows the scan instead of returning an arbitrary slice of it;
+     * typos before the prefix the search settles on are then missed as well.
+     */
+    static final int FUZZY_PREFIX_LENGTH = 2;
+
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int FUZZY = 2;
+
+    private final CustomerSearchRepository searchRepository;
+    private final Duration budget;
+    private final Duration cacheTtl;
+    private final Map<String, CachedResults> hotQueries;
+
+    public CustomerSearchServiceImpl(CustomerSearchRepository searchRepository,
+                                     @Value("${customer.search.budget:300ms}") Duration budget,
+                                     @Value("${customer.search.cache-size:256}") int cacheSize,
+                                     @Value("${customer.search.cache-ttl:30s}") Duration cacheTtl) {
+        this.searchRepository = searchRepository;
+        this.budget = budget;
+        this.cacheTtl = cacheTtl;
+        this.hotQueries = Collections.synchronizedMap(new LinkedHashMap<String, CachedResults>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResults> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public Flux<CustomerResponseDto> searchCustomers(String query, int limit, String requestID) {
+        String normalized = CustomerNames.normalize(query);
+        if (normalized.length() < MIN_QUERY_LENGTH) {
+            return Flux.error(new IllegalArgumentException("Search query needs at least " + MIN_QUERY_LENGTH + " letters or digits"));
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return Flux.error(new IllegalArgumentException("Search limit must be between 1 and " + MAX_LIMIT));
+        }
+        String cacheKey = limit + ":" + normalized;
+        CachedResults cached = hotQueries.get(cacheKey);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            log.info("Serving cached search results for '{}' with requestID {}", normalized, requestID);
+            return Flux.fromIterable(cached.customers());
+        }
+        log.info("Searching customers for '{}' with requestID {}", normalized, requestID);
+        return rankedMatches(normalized, limit)
+                .timeout(budget)
+                .doOnNext(customers -> {
+                    hotQueries.put(cacheKey, new CachedResults(customers, Instant.now().plus(cacheTtl)));
+                    log.info("Found {} customers for '{}' with requestID {}", customers.size(), normalized, requestID);
+                })
+                .flatMapIterable(Function.identity());
+    }
+
+    private Mono<List<CustomerResponseDto>> rankedMatches(String query, int limit) {
+        return searchRepository.findByNamePrefix(query, CANDIDATE_LIMIT)
+                .collectList()
+                .flatMap(prefixMatches -> {
+                    if (prefixMatches.size() >= limit || query.length() <= FUZZY_PREFIX_LENGTH) {
+                        return Mono.just(prefixMatches);
+                    }
+                    // Too few prefix matches: widen the range and let ranking keep only the near misses. This
+                    // step is best effort; if it fails, e.g. by exceeding its server-side time limit, the prefix
+                    // matches are still returned
+                    return nearMatches(query, FUZZY_PREFIX_LENGTH)
+                            .map(nearMatches -> {
+                                List<Customer> candidates = new ArrayList<>(prefixMatches);
+                                candidates.addAll(nearMatches);
+                                return candidates;
+                            })
+                            .onErrorResume(e -> {
+                                log.warn("Skipping fuzzy search for '{}': {}", query, e.getMessage());
+                                return Mono.just(prefixMatches);
+                            });
+                })
+                .map(candidates -> rank(query, candidates, limit));
+    }
+
+    /**
+     * Candidates sharing the shortest prefix of {@code query}, from {@code prefixLength} on, whose range holds
+     * fewer than {@link #CANDIDATE_LIMIT} customers. The longest prefix tried stops one character short of the
+     * query, whose own range the prefix matches already cover.
+     */
+    private Mono<List<Customer>> nearMatches(String query, int prefixLength) {
+        return searchRepository.findByNamePrefix(query.substring(0, prefixLength), CANDIDATE_LIMIT)
+                .collectList()
+                .flatMap(candidates -> candidates.size() < CANDIDATE_LIMIT || prefixLength + 1 >= query.length()
+                        ? Mono.just(candidates)
+                        : nearMatches(query, prefixLength + 1));
+    }
+
+    static List<CustomerResponseDto> rank(String query, List<Customer> candidates, int limit) {
+        Map<String, Match> bestMatches = new LinkedHashMap<>();
+        for (Customer customer : candidates) {
+            Match match = bestMatch(query, customer);
+            if (match != null) {
+                bestMatches.merge(customer.getCustomerId(), match, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+        return bestMatches.values().stream()
+                .sorted()
+                .limit(limit)
+                .map(match -> CustomerResponses.from(match.customer()))
+                .toList();
+    }
+
+    private static Match bestMatch(String query, Customer customer) {
+        if (customer.getSearchNames() == null) {
+            return null;
+        }
+        int maxEdits = query.length() <= 4 ? 1 : 2;
+        Match best = null;
+        for (String name : customer.getSearchNames()) {
+            Match match;
+            if (name.equals(query)) {
+                match = new Match(customer, EXACT, 0, name);
+            } else if (name.startsWith(query)) {
+                match = new Match(customer, PREFIX, 0, name);
+            } else {
+                int distance = prefixEditDistance(query, name);
+                match = distance <= maxEdits ? new Match(customer, FUZZY, distance, name) : null;
+            }
+            if (match != null && (best == null || match.compareTo(best) < 0)) {
+                best = match;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Fewest single-character edits, counting a swap of neighbouring characters as one, turning {@code query}
+     * into some prefix of {@code name}, i.e. how far the query is from being typed-ahead into the name.
+     */
+    static int prefixEditDistance(String query, String name) {
+        int[] beforePrevious = new int[name.length() + 1];
+        int[] previous = new int[name.length() + 1];
+        int[] current = new int[name.length() + 1];
+        for (int j = 0; j <= name.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= name.length(); j++) {
+                int substitution = previous[j - 1] + (query.charAt(i - 1) == name.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                if (i > 1 && j > 1 && query.charAt(i - 1) == name.charAt(j - 2) && query.charAt(i - 2) == name.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        int distance = Integer.MAX_VALUE;
+        for (int value : previous) {
+            distance = Math.min(distance, value);
+        }
+        return distance;
+    }
+
+    private record Match(Customer customer, int tier, int distance, String name) implements Comparable<Match> {
+        private static final Comparator<Match> ORDER = Comparator.comparingInt(Match::tier)
+                .thenComparingInt(Match::distance)
+                .thenComparingInt(match -> match.name().length())
+                .thenComparing(Match::name);
+
+        @Override
+        public int compareTo(Match other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private record CachedResults(List<CustomerResponseDto> customers, Instant expiresAt) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.afrisol.CustomerService.service;
 
+import com.afrisol.CustomerService.dto.CustomerLookupRequestDto;
+import com.afrisol.CustomerService.dto.CustomerLookupResultDto;
 import com.afrisol.CustomerService.dto.CustomerRequestDto;
 import com.afrisol.CustomerService.dto.CustomerResponseDto;
 import reactor.core.publisher.Flux;
@@ -8,7 +10,27 @@ import reactor.core.publisher.Mono;
 public interface CustomerService {
     Mono<CustomerResponseDto> addCustomer(CustomerRequestDto customerDto, String requestID);
     Mono<CustomerResponseDto> getCustomer(String phoneNumber, String requestID);
+    /**
+     * Resolves only the current version of a customer, for answering conditional requests. Completes empty
+     * when the customer does not exist.
+     */
+    Mono<Long> getCustomerVersion(String email, String requestID);
     Flux<CustomerResponseDto> getAllCustomers(String requestID);
+    /**
+     * Resolves many customers by id and/or email with a handful of {@code $in} queries. Emits one result per
+     * requested key, ids first and then emails, each in request order, marking keys that did not resolve.
+     */
+    Flux<CustomerLookupResultDto> lookupCustomers(CustomerLookupRequestDto lookupDto, String requestID);
     Mono<CustomerResponseDto> updateCustomer(CustomerRequestDto customerDto, String customerId, String requestID);
+    /**
+     * Updates the customer only if its current version equals {@code expectedVersion}; a {@code null}
+     * expected version updates unconditionally.
+     */
+    Mono<CustomerResponseDto> updateCustomer(CustomerRequestDto customerDto, String customerId, Long expectedVersion, String requestID);
     Mono<Void> deleteCustomer(String customerId, String requestID);
+    /**
+     * Deletes the customer only if its current version equals {@code expectedVersion}; a {@code null}
+     * expected version deletes unconditionally.
+     */
+    Mono<Void> deleteCustomer(String customerId, Long expectedVersion, String requestID);
 }
@@ -1,31 +1,53 @@
 package com.afrisol.CustomerService.service;
 
+import com.afrisol.CustomerService.audit.CustomerAuditTrail;
+import com.afrisol.CustomerService.audit.CustomerChanges;
+import com.afrisol.CustomerService.dto.CustomerLookupRequestDto;
+import com.afrisol.CustomerService.dto.CustomerLookupResultDto;
 import com.afrisol.CustomerService.dto.CustomerRequestDto;
 import com.afrisol.CustomerService.dto.CustomerResponseDto;
 import com.afrisol.CustomerService.exception.CustomException;
 import com.afrisol.CustomerService.exception.CustomerAlreadyExistsException;
 import com.afrisol.CustomerService.exception.CustomerNotFoundException;
 import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.repository.CustomerEmails;
 import com.afrisol.CustomerService.repository.CustomerRepository;
+import com.afrisol.CustomerService.repository.RepositoryResilience;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.reactive.error.DefaultErrorAttributes;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class CustomerServiceImpl implements CustomerService {
 
+    static final int LOOKUP_MAX_KEYS = 1000;
+    static final int LOOKUP_CHUNK_SIZE = 200;
+    static final int LOOKUP_CONCURRENCY = 4;
+    static final int WRITE_ATTEMPTS = 3;
+
     private final CustomerRepository customerRepository;
+    private final CustomerAuditTrail auditTrail;
 
     @Autowired
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, CustomerAuditTrail auditTrail) {
         this.customerRepository = customerRepository;
+        this.auditTrail = auditTrail;
     }
 
     @Override
@@ -49,7 +71,7 @@ public class CustomerServiceImpl implements CustomerService {
                             .build())
                       .doOnNext(savedCustomer ->
                             log.info("Successfully added customer with ID: {} with requestID {}", savedCustomer.getCustomerId(),requestID)
-                    ).map(this::mapToCustomerResponseDto);
+                    ).map(CustomerResponses::from);
                 });
     }
 
@@ -59,33 +81,103 @@ public class CustomerServiceImpl implements CustomerService {
             return Mono.error(new CustomException(HttpStatus.BAD_REQUEST,"Email cannot be null"));
         }
         log.info("Searching for customer with email: {}", email);
-        email = email.toLowerCase();
+        email = CustomerEmails.normalize(email);
         return customerRepository.findByEmail(email)
                 .doOnNext(customer -> log.info("Successfully retrieved customer with ID: {} with requestID {}", customer.getCustomerId(), requestID))
-                .map(this::mapToCustomerResponseDto)
+                .map(CustomerResponses::from)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found")))
                 .onErrorResume(e -> {
-                    if (e instanceof ResponseStatusException) {
+                    if (e instanceof ResponseStatusException || RepositoryResilience.isUnavailable(e)) {
                         return Mono.error(e);
                     }
                     return Mono.error(new RuntimeException("Unexpected error occurred", e));
                 });
     }
 
+    @Override
+    public Mono<Long> getCustomerVersion(String email, String requestID) {
+        if (email == null || email.isEmpty()) {
+            return Mono.error(new CustomException(HttpStatus.BAD_REQUEST,"Email cannot be null"));
+        }
+        return customerRepository.findVersionByEmail(CustomerEmails.normalize(email))
+                .mapNotNull(Customer::getVersion)
+                .doOnNext(version -> log.debug("Resolved version {} for customer {} with requestID {}", version, email, requestID));
+    }
+
     @Override
     public Flux<CustomerResponseDto> getAllCustomers(String requestID) {
-        return customerRepository.findAll().map(this::mapToCustomerResponseDto);
+        return customerRepository.findAll().map(CustomerResponses::from);
+    }
+
+    @Override
+    public Flux<CustomerLookupResultDto> lookupCustomers(CustomerLookupRequestDto lookupDto, String requestID) {
+        if (lookupDto == null) {
+            return Flux.error(new IllegalArgumentException("CustomerLookupRequestDto cannot be null"));
+        }
+        List<String> ids = lookupDto.getIds() == null ? List.of() : lookupDto.getIds();
+        List<String> emails = lookupDto.getEmails() == null ? List.of() : lookupDto.getEmails();
+        if (ids.size() + emails.size() > LOOKUP_MAX_KEYS) {
+            return Flux.error(new IllegalArgumentException("At most " + LOOKUP_MAX_KEYS + " customers can be looked up at once"));
+        }
+        if (ids.stream().anyMatch(this::isBlank) || emails.stream().anyMatch(this::isBlank)) {
+            return Flux.error(new IllegalArgumentException("Lookup keys cannot be empty"));
+        }
+        log.info("Looking up {} ids and {} emails with requestID {}", ids.size(), emails.size(), requestID);
+        return Flux.concat(
+                lookupInChunks(ids, customerRepository::findAllById, Customer::getCustomerId, Function.identity()),
+                lookupInChunks(emails, customerRepository::findByEmailIn,
+                        customer -> CustomerEmails.normalize(customer.getEmail()), CustomerEmails::normalize));
+    }
+
+    /**
+     * Matches found customers to the requested keys through {@code normalize}, applied to both sides, while each
+     * result still reports the key exactly as the caller sent it.
+     */
+    private Flux<CustomerLookupResultDto> lookupInChunks(List<String> keys,
+                                                         Function<Collection<String>, Flux<Customer>> finder,
+                                                         Function<Customer, String> keyOf,
+                                                         Function<String, String> normalize) {
+        // Chunks run concurrently but flatMapSequential replays them in order, so results keep request order
+        return Flux.fromIterable(keys)
+                .buffer(LOOKUP_CHUNK_SIZE)
+                .flatMapSequential(chunk -> finder.apply(chunk.stream()
+                                        .map(normalize)
+                                        .collect(Collectors.toCollection(LinkedHashSet::new)))
+                                .collectMap(keyOf)
+                                .flatMapIterable(found -> chunk.stream()
+                                        .map(key -> toLookupResult(key, found.get(normalize.apply(key))))
+                                        .toList()),
+                        LOOKUP_CONCURRENCY);
+    }
+
+    private CustomerLookupResultDto toLookupResult(String key, Customer customer) {
+        return CustomerLookupResultDto.builder()
+                .key(key)
+                .found(customer != null)
+                .customer(customer == null ? null : CustomerResponses.from(customer))
+                .build();
+    }
+
+    private boolean isBlank(String key) {
+        return key == null || key.isBlank();
     }
 
     @Override
     public Mono<CustomerResponseDto> updateCustomer(@Valid CustomerRequestDto customerDto, String customerId, String requestID) {
+        return updateCustomer(customerDto, customerId, null, requestID);
+    }
+
+    @Override
+    public Mono<CustomerResponseDto> updateCustomer(@Valid CustomerRequestDto customerDto, String customerId, Long expectedVersion, String requestID) {
         log.info("Updating customer with ID: {} Request ID {}", customerId, requestID);
         if (customerDto == null || customerDto.getFirstName() == null || customerDto.getFirstName().isEmpty()) {
             return Mono.error(new IllegalArgumentException("Invalid customer data"));
         }
-        return customerRepository.findById(customerId)
+        return Mono.defer(() -> customerRepository.findById(customerId))
                 .switchIfEmpty(Mono.error(new CustomerNotFoundException("Customer not found with ID: " + customerId)))
+                .flatMap(existingCustomer -> checkVersion(existingCustomer, expectedVersion))
                 .flatMap(existingCustomer -> {
+                    Map<String, String> before = CustomerChanges.snapshot(existingCustomer);
                     existingCustomer.setFirstName(customerDto.getFirstName());
                     existingCustomer.setLastName(customerDto.getLastName());
                     existingCustomer.setPhone(customerDto.getPhone());
@@ -93,33 +185,69 @@ public class CustomerServiceImpl implements CustomerService {
                     existingCustomer.setAddress(customerDto.getAddress());
                     existingCustomer.setDateOfBirth(customerDto.getDateOfBirth());
                     existingCustomer.setIncome(customerDto.getIncome());
-                    return customerRepository.save(existingCustomer);
+                    return customerRepository.save(existingCustomer)
+                            .doOnNext(updatedCustomer -> CustomerChanges.updated(before, updatedCustomer, requestID)
+                                    .ifPresent(auditTrail::record));
                 })
+                .retryWhen(retryUnconditionalWrite(expectedVersion))
+                .onErrorMap(OptimisticLockingFailureException.class, e -> writeConflict(customerId, expectedVersion))
                 .doOnNext(updatedCustomer ->
                         log.info("Successfully updated customer with ID: {} with request ID {}", updatedCustomer.getCustomerId(), requestID)
                 )
-                .map(this::mapToCustomerResponseDto);
+                .map(CustomerResponses::from);
     }
 
     @Override
     public Mono<Void> deleteCustomer(String customerId, String requestID) {
+        return deleteCustomer(customerId, null, requestID);
+    }
+
+    @Override
+    public Mono<Void> deleteCustomer(String customerId, Long expectedVersion, String requestID) {
         log.info("Deleting customer with ID: {} Request ID {}", customerId, requestID);
         if (customerId == null || customerId.isEmpty()) {
             return Mono.error(new IllegalArgumentException("Invalid customer data"));
         }
         log.info("Deleting customer with ID: {}", customerId);
-        return customerRepository.findById(customerId)
+        return Mono.defer(() -> customerRepository.findById(customerId))
                 .switchIfEmpty(Mono.error(new CustomerNotFoundException("Customer not found with ID: " + customerId)))
-                .flatMap(customerRepository::delete)
+                .flatMap(existingCustomer -> checkVersion(existingCustomer, expectedVersion))
+                .flatMap(existingCustomer -> customerRepository.softDelete(existingCustomer)
+                        .doOnSuccess(unused -> auditTrail.record(CustomerChanges.deleted(existingCustomer, requestID))))
+                .retryWhen(retryUnconditionalWrite(expectedVersion))
+                .onErrorMap(OptimisticLockingFailureException.class, e -> writeConflict(customerId, expectedVersion))
                 .doOnSuccess(unused -> log.info("Successfully deleted customer with ID: {} request ID {}", customerId, requestID));
     }
 
-    private CustomerResponseDto mapToCustomerResponseDto(Customer customer) {
-        return CustomerResponseDto.builder()
-                .customerId(customer.getCustomerId())
-                .firstName(customer.getFirstName())
-                .lastName(customer.getLastName())
-                .phone(customer.getPhone())
-                .build();
+    private Mono<Customer> checkVersion(Customer customer, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(customer.getVersion())) {
+            return Mono.error(versionMismatch(customer.getCustomerId()));
+        }
+        return Mono.just(customer);
+    }
+
+    private CustomException versionMismatch(String customerId) {
+        return new CustomException(HttpStatus.PRECONDITION_FAILED, "Customer has been modified since version was read, ID: " + customerId);
+    }
+
+    /**
+     * A write without a version precondition lost a race with another write. It re-reads the customer and tries
+     * again, as the client asked for its change regardless of what is stored; a write with a precondition fails
+     * straight away, as the version it was based on is gone.
+     */
+    private Retry retryUnconditionalWrite(Long expectedVersion) {
+        return Retry.max(WRITE_ATTEMPTS - 1)
+                .filter(e -> expectedVersion == null && e instanceof OptimisticLockingFailureException)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    /**
+     * 412 when the client's If-Match no longer holds, 409 when an unconditional write kept losing races.
+     */
+    private CustomException writeConflict(String customerId, Long expectedVersion) {
+        if (expectedVersion != null) {
+            return versionMismatch(customerId);
+        }
+        return new CustomException(HttpStatus.CONFLICT, "Customer kept changing concurrently, ID: " + customerId);
     }
 }
@@ -0,0 +1,13 @@
+package com.afrisol.CustomerService.service;
+
+import com.afrisol.CustomerService.dto.CustomerStatisticsDto;
+import reactor.core.publisher.Mono;
+
+public interface CustomerStatisticsService {
+    /**
+     * Returns the cached portfolio statistics, which are recomputed in the background on a fixed interval.
+     * Fails with a 503 {@link com.afrisol.CustomerService.exception.CustomException} while the cache has not
+     * been filled yet.
+     */
+    Mono<CustomerStatisticsDto> getStatistics(String requestID);
+}
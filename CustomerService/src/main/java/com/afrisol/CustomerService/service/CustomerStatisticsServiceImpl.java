@@ -0,0 +1,75 @@
+package com.afrisol.CustomerService.service;
+
+import com.afrisol.CustomerService.dto.CustomerStatisticsDto;
+import com.afrisol.CustomerService.exception.CustomException;
+import com.afrisol.CustomerService.repository.CustomerStatisticsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Serves portfolio statistics from memory only. The cache is primed before the application reports ready,
+ * since Spring Boot only publishes readiness once all runners have completed, and recomputed on a fixed
+ * interval afterwards, so no request ever waits for the aggregation.
+ */
+@Slf4j
+@Service
+public class CustomerStatisticsServiceImpl implements CustomerStatisticsService, ApplicationRunner {
+
+    private final CustomerStatisticsRepository statisticsRepository;
+    private final Duration primeTimeout;
+
+    private volatile CustomerStatisticsDto cachedStatistics;
+
+    public CustomerStatisticsServiceImpl(CustomerStatisticsRepository statisticsRepository,
+                                         @Value("${customer.statistics.prime-timeout:30s}") Duration primeTimeout) {
+        this.statisticsRepository = statisticsRepository;
+        this.primeTimeout = primeTimeout;
+    }
+
+    @Override
+    public Mono<CustomerStatisticsDto> getStatistics(String requestID) {
+        CustomerStatisticsDto statistics = cachedStatistics;
+        if (statistics == null) {
+            log.warn("Customer statistics are not computed yet, requestID {}", requestID);
+            return Mono.error(new CustomException(HttpStatus.SERVICE_UNAVAILABLE, "Customer statistics are not available yet"));
+        }
+        return Mono.just(statistics);
+    }
+
+    /**
+     * Primes the cache. A failure leaves it cold until the next scheduled refresh rather than failing startup.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            refresh().block(primeTimeout);
+        } catch (RuntimeException e) {
+            log.warn("Could not prime customer statistics at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes the statistics and swaps them into the cache. On failure the previous statistics stay in place.
+     */
+    @Scheduled(initialDelayString = "${customer.statistics.refresh-interval:PT5M}",
+            fixedDelayString = "${customer.statistics.refresh-interval:PT5M}")
+    public Mono<CustomerStatisticsDto> refresh() {
+        return statisticsRepository.aggregateStatistics()
+                .doOnNext(statistics -> {
+                    cachedStatistics = statistics;
+                    log.info("Refreshed customer statistics at {}", statistics.getGeneratedAt());
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to refresh customer statistics: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,255 @@
+package com.afrisol.CustomerService.warmup;
+
+import com.afrisol.CustomerService.dto.CustomerLookupRequestDto;
+import com.afrisol.CustomerService.dto.CustomerRequestDto;
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.model.Address;
+import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs before the application reports ready: Spring Boot only publishes
+ * {@link ReadinessState#ACCEPTING_TRAFFIC} once all runners have completed, so the readiness probe stays down
+ * until the Mongo pool is open and the request paths have been compiled by the JIT. The synthetic traffic goes
+ * through the running server over loopback HTTP, so routing, argument resolution, validation and the codecs
+ * warm up along with the controller and service. It reads and rewrites a single throwaway customer in the
+ * reserved {@code .invalid} email domain, which is removed again afterwards.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(WarmUpProperties.class)
+@ConditionalOnProperty(prefix = "customer.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmUp implements ApplicationRunner {
+
+    static final String WARM_UP_DOMAIN = "@warmup.invalid";
+
+    private static final List<String> QUIET_LOGGERS = List.of(
+            "com.afrisol.CustomerService.controller",
+            "com.afrisol.CustomerService.service");
+
+    private final WarmUpProperties properties;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final CustomerRepository customerRepository;
+    private final WebClient.Builder webClientBuilder;
+    private final Environment environment;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LoggingSystem loggingSystem;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong initialLatencyMicros = new AtomicLong();
+    private final AtomicLong steadyLatencyMicros = new AtomicLong();
+
+    public StartupWarmUp(WarmUpProperties properties,
+                         ReactiveMongoTemplate mongoTemplate,
+                         CustomerRepository customerRepository,
+                         WebClient.Builder webClientBuilder,
+                         Environment environment,
+                         ApplicationEventPublisher eventPublisher,
+                         LoggingSystem loggingSystem,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.customerRepository = customerRepository;
+        this.webClientBuilder = webClientBuilder;
+        this.environment = environment;
+        this.eventPublisher = eventPublisher;
+        this.loggingSystem = loggingSystem;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("customer.warmup.latency", Tags.of("phase", "initial"), initialLatencyMicros);
+        meterRegistry.gauge("customer.warmup.latency", Tags.of("phase", "steady"), steadyLatencyMicros);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long started = System.nanoTime();
+        long connections = openMongoConnections();
+        WarmUpReport report = exerciseRequestPaths();
+        Duration duration = Duration.ofNanos(System.nanoTime() - started);
+        meterRegistry.timer("customer.warmup.duration").record(duration);
+        initialLatencyMicros.set(report.initialLatencyMicros());
+        steadyLatencyMicros.set(report.steadyLatencyMicros());
+        log.info("Warm-up finished in {} ms: {} Mongo connections opened, {} synthetic iterations, "
+                        + "latency per iteration {} us at start and {} us at end",
+                duration.toMillis(), connections, report.iterations(),
+                report.initialLatencyMicros(), report.steadyLatencyMicros());
+    }
+
+    long openMongoConnections() {
+        int connections = properties.getMongoConnections();
+        try {
+            // Concurrent pings each check out their own connection, growing the pool to the requested size
+            Long opened = Flux.range(0, connections)
+                    .flatMap(i -> mongoTemplate.executeCommand("{ ping: 1 }"), connections)
+                    .count()
+                    .block(properties.getMongoTimeout());
+            return opened == null ? 0 : opened;
+        } catch (RuntimeException e) {
+            log.warn("Could not pre-open Mongo connections during warm-up: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    WarmUpReport exerciseRequestPaths() {
+        // The web server publishes its port before runners are called; without one there is nothing to warm up
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            log.warn("Skipping warm-up traffic, the HTTP server port is not known");
+            return new WarmUpReport(0, 0, 0);
+        }
+        WebClient webClient = webClientBuilder.baseUrl("http://localhost:" + port + "/api/v1").build();
+        String email = "warmup-" + UUID.randomUUID() + WARM_UP_DOMAIN;
+        CustomerRequestDto request = sampleRequest(email);
+        long[] latencies = new long[properties.getIterations()];
+        int completed = 0;
+        String customerId = null;
+        long deadline = System.nanoTime() + properties.getMaxDuration().toNanos();
+        Map<String, LogLevel> previousLevels = quietLoggers();
+        try {
+            CustomerResponseDto created = webClient.post()
+                    .uri("/customers")
+                    .bodyValue(request)
+                    .retrieve()
+                    .bodyToMono(CustomerResponseDto.class)
+                    .block(properties.getRequestTimeout());
+            customerId = created.getCustomerId();
+            while (completed < latencies.length && System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                runIteration(webClient, request, customerId);
+                latencies[completed++] = System.nanoTime() - start;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Warm-up traffic stopped after {} iterations: {}", completed, e.getMessage());
+        } finally {
+            previousLevels.forEach((logger, level) -> loggingSystem.setLogLevel(logger, level));
+            removeCustomer(customerId, email);
+        }
+        int sample = Math.min(properties.getSampleSize(), completed);
+        return new WarmUpReport(completed,
+                averageMicros(latencies, 0, sample),
+                averageMicros(latencies, completed - sample, completed));
+    }
+
+    /**
+     * Sends the requests of one iteration. None of them changes an audited field, so the audit trail stays
+     * clean: the create is rejected as a duplicate and the update writes back what the customer already holds.
+     */
+    private void runIteration(WebClient webClient, CustomerRequestDto request, String customerId) {
+        exchange(HttpStatus.CONFLICT, webClient.post()
+                .uri("/customers")
+                .bodyValue(request));
+        ResponseEntity<Void> read = exchange(HttpStatus.OK, webClient.get()
+                .uri("/customers/{email}", request.getEmail()));
+        exchange(HttpStatus.NOT_MODIFIED, webClient.get()
+                .uri("/customers/{email}", request.getEmail())
+                .header(HttpHeaders.IF_NONE_MATCH, read.getHeaders().getETag()));
+        exchange(HttpStatus.OK, webClient.put()
+                .uri("/customers/{customerId}", customerId)
+                .bodyValue(request));
+        exchange(HttpStatus.OK, webClient.post()
+                .uri("/customers:lookup")
+                .bodyValue(CustomerLookupRequestDto.builder()
+                        .ids(List.of(customerId))
+                        .emails(List.of(request.getEmail()))
+                        .build()));
+    }
+
+    /**
+     * Sends the request, drains the response and fails unless it came back with the expected status.
+     */
+    private ResponseEntity<Void> exchange(HttpStatus expected, WebClient.RequestHeadersSpec<?> request) {
+        ResponseEntity<Void> response = request.exchangeToMono(ClientResponse::toBodilessEntity)
+                .block(properties.getRequestTimeout());
+        if (response == null || !expected.equals(response.getStatusCode())) {
+            throw new IllegalStateException("Warm-up request answered "
+                    + (response == null ? "nothing" : response.getStatusCode()) + " instead of " + expected);
+        }
+        return response;
+    }
+
+    /**
+     * Removes the throwaway customer for good, together with its email claim. Going through the repository
+     * rather than the API keeps the removal out of the audit trail.
+     */
+    private void removeCustomer(String customerId, String email) {
+        if (customerId == null) {
+            return;
+        }
+        try {
+            customerRepository.delete(Customer.builder().customerId(customerId).email(email).build())
+                    .block(properties.getMongoTimeout());
+        } catch (RuntimeException e) {
+            log.warn("Could not remove warm-up customer {}: {}", customerId, e.getMessage());
+        }
+    }
+
+    private CustomerRequestDto sampleRequest(String email) {
+        return CustomerRequestDto.builder()
+                .firstName("Warm")
+                .lastName("Up")
+                .email(email)
+                .phone("0000000000")
+                .address(new Address("1 Warm-up Street", "Springfield", "IL"))
+                .dateOfBirth(LocalDate.of(1980, 1, 1))
+                .income(10000.0)
+                .build();
+    }
+
+    /**
+     * Raises the request-path loggers to WARN so the synthetic traffic does not flood the startup log, and
+     * returns their configured levels for restoring afterwards.
+     */
+    private Map<String, LogLevel> quietLoggers() {
+        Map<String, LogLevel> previousLevels = new HashMap<>();
+        for (String logger : QUIET_LOGGERS) {
+            LoggerConfiguration configuration = loggingSystem.getLoggerConfiguration(logger);
+            // A null level resets the logger to inherit from its parent again
+            previousLevels.put(logger, configuration == null ? null : configuration.getConfiguredLevel());
+            loggingSystem.setLogLevel(logger, LogLevel.WARN);
+        }
+        return previousLevels;
+    }
+
+    private static long averageMicros(long[] latencies, int from, int to) {
+        if (to <= from) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += latencies[i];
+        }
+        return total / (to - from) / 1_000;
+    }
+
+    record WarmUpReport(int iterations, long initialLatencyMicros, long steadyLatencyMicros) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.afrisol.CustomerService.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "customer.warmup")
+public class WarmUpProperties {
+    private boolean enabled = true;
+    /**
+     * Synthetic create/read/update/lookup cycles to send to the server over loopback HTTP.
+     */
+    private int iterations = 5000;
+    /**
+     * Upper bound on the synthetic traffic; readiness flips when either limit is reached.
+     */
+    private Duration maxDuration = Duration.ofSeconds(20);
+    /**
+     * Mongo connections to open before accepting traffic; match the minPoolSize of the connection string.
+     */
+    private int mongoConnections = 10;
+    private Duration mongoTimeout = Duration.ofSeconds(3);
+    /**
+     * How long a single synthetic request may take before the warm-up gives up on the traffic.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(3);
+    /**
+     * Iterations averaged at the start and at the end of the warm-up for the latency report.
+     */
+    private int sampleSize = 100;
+}
@@ -0,0 +1,186 @@
+package com.afrisol.CustomerService.audit;
+
+import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.model.CustomerAuditRecord;
+import com.afrisol.CustomerService.repository.CustomerAuditRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueuedCustomerAuditTrailTest {
+
+    @Mock
+    private CustomerAuditRepository auditRepository;
+
+    @Captor
+    private ArgumentCaptor<List<CustomerAuditRecord>> batches;
+
+    @TempDir
+    Path spoolDirectory;
+
+    private CustomerAuditSpool spool;
+    private SimpleMeterRegistry meterRegistry;
+    private QueuedCustomerAuditTrail auditTrail;
+    private List<Runnable> spoolTasks;
+
+    @BeforeEach
+    void setUp() {
+        CustomerAuditProperties properties = new CustomerAuditProperties();
+        properties.setQueueCapacity(2);
+        properties.setBatchSize(2);
+        // Flushes are driven by the tests, never by the background loop
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setWriteTimeout(Duration.ofSeconds(1));
+        spool = new CustomerAuditSpool(spoolDirectory, new ObjectMapper().findAndRegisterModules(), 1024 * 1024);
+        meterRegistry = new SimpleMeterRegistry();
+        spoolTasks = new ArrayList<>();
+        // Spool writes run only when a test runs the queued tasks, like a worker thread that has not got to them yet
+        auditTrail = new QueuedCustomerAuditTrail(auditRepository, properties, spool,
+                Schedulers.fromExecutor(spoolTasks::add), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditTrail.stop();
+    }
+
+    @Test
+    void flush_shouldWriteQueuedRecordsInBatches() {
+        when(auditRepository.insertAll(Mockito.anyList())).thenReturn(Mono.empty());
+        auditTrail.start();
+        auditTrail.record(deleted("1"));
+        auditTrail.record(deleted("2"));
+
+        StepVerifier.create(auditTrail.flush()).verifyComplete();
+
+        verify(auditRepository, Mockito.times(1)).insertAll(Mockito.argThat(batch -> batch.size() == 2));
+        assertEquals(2.0, recorded("written"));
+        assertEquals(0L, spool.sizeBytes());
+    }
+
+    @Test
+    void record_whenQueueIsFull_shouldSpillToSpoolAndReplayIt() {
+        when(auditRepository.insertAll(Mockito.anyList())).thenReturn(Mono.empty());
+        auditTrail.start();
+        auditTrail.record(deleted("1"));
+        auditTrail.record(deleted("2"));
+        auditTrail.record(deleted("3"));
+
+        assertEquals(0L, spool.sizeBytes());
+        runSpoolTasks();
+        assertEquals(1.0, recorded("spooled"));
+
+        StepVerifier.create(auditTrail.flush()).verifyComplete();
+
+        verify(auditRepository, Mockito.times(2)).insertAll(batches.capture());
+        assertEquals("3", batches.getAllValues().get(1).get(0).getCustomerId());
+        assertEquals(3.0, recorded("written"));
+        assertEquals(0L, spool.sizeBytes());
+    }
+
+    @Test
+    void flush_whenWriteFails_shouldSpoolBatchAndReplayItOnNextFlush() {
+        when(auditRepository.insertAll(Mockito.anyList()))
+                .thenReturn(Mono.error(new RuntimeException("Database error")), Mono.empty());
+        auditTrail.start();
+        auditTrail.record(deleted("1"));
+
+        StepVerifier.create(auditTrail.flush()).verifyComplete();
+        runSpoolTasks();
+
+        assertEquals(1.0, recorded("spooled"));
+        verify(auditRepository, Mockito.times(1)).insertAll(Mockito.anyList());
+
+        StepVerifier.create(auditTrail.flush()).verifyComplete();
+
+        verify(auditRepository, Mockito.times(2)).insertAll(Mockito.anyList());
+        assertEquals(1.0, recorded("written"));
+        assertEquals(0L, spool.sizeBytes());
+    }
+
+    @Test
+    void stop_shouldWriteWhatIsStillQueued() {
+        when(auditRepository.insertAll(Mockito.anyList())).thenReturn(Mono.empty());
+        auditTrail.start();
+        auditTrail.record(deleted("1"));
+
+        auditTrail.stop();
+
+        verify(auditRepository, Mockito.times(1)).insertAll(Mockito.anyList());
+        assertEquals(1.0, recorded("written"));
+    }
+
+    @Test
+    void record_whenNotRunning_shouldSpoolOffTheCallingThread() {
+        auditTrail.record(deleted("1"));
+
+        assertEquals(1, spoolTasks.size());
+        assertEquals(0L, spool.sizeBytes());
+        runSpoolTasks();
+        assertEquals(1.0, recorded("spooled"));
+        assertTrue(spool.sizeBytes() > 0);
+        verify(auditRepository, Mockito.never()).insertAll(Mockito.anyList());
+    }
+
+    @Test
+    void record_whenSpoolWriterFallsBehind_shouldDropAndCountWithoutBlocking() {
+        for (int i = 0; i < 5; i++) {
+            auditTrail.record(deleted(String.valueOf(i)));
+        }
+
+        assertEquals(3.0, recorded("dropped"));
+        assertEquals(1, spoolTasks.size());
+        runSpoolTasks();
+        assertEquals(2.0, recorded("spooled"));
+    }
+
+    @Test
+    void stop_shouldSpoolRecordsStillWaitingForTheSpoolWriter() {
+        auditTrail.record(deleted("1"));
+
+        auditTrail.stop();
+
+        assertEquals(1.0, recorded("spooled"));
+    }
+
+    private void runSpoolTasks() {
+        List<Runnable> tasks = new ArrayList<>(spoolTasks);
+        spoolTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private double recorded(String outcome) {
+        return meterRegistry.counter("customer.audit.records", "outcome", outcome).count();
+    }
+
+    private static CustomerAuditRecord deleted(String customerId) {
+        Customer customer = new Customer();
+        customer.setCustomerId(customerId);
+        customer.setFirstName("John");
+        customer.setVersion(0L);
+        return CustomerChanges.deleted(customer, "testRequestID");
+    }
+}
@@ -3,16 +3,23 @@ package com.afrisol.CustomerService.controller;
 import com.afrisol.CustomerService.dto.CustomerRequestDto;
 import com.afrisol.CustomerService.exception.CustomerNotFoundException;
 import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.exception.CustomException;
 import com.afrisol.CustomerService.exception.CustomerAlreadyExistsException;
+import com.afrisol.CustomerService.idempotency.IdempotencyStore;
+import com.afrisol.CustomerService.idempotency.IdempotentRequests;
 import com.afrisol.CustomerService.model.Address;
 import com.afrisol.CustomerService.model.Customer;
 import com.afrisol.CustomerService.service.CustomerService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
@@ -23,14 +30,19 @@ import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeoutException;
 
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(CustomerController.class)
+@Import(IdempotentRequests.class)
 public class CustomerControllerTest {
     @MockBean
     private CustomerService customerService;
 
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
     @Autowired
     private WebTestClient webTestClient;
     private Customer customer;
@@ -105,6 +117,29 @@ public class CustomerControllerTest {
         Mockito.verify(customerService).addCustomer(Mockito.any(), Mockito.any());
     }
 
+    @Test
+    void addCustomer_whenIdempotencyKeyIsReplayed_shouldReturnFirstResponseWithoutCallingService() {
+        when(customerService.addCustomer(Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.just(customerResponseDto));
+        when(idempotencyStore.findById(Mockito.anyString())).thenReturn(Mono.empty());
+        when(idempotencyStore.claim(Mockito.anyString(), Mockito.anyString())).thenReturn(Mono.just(true));
+        when(idempotencyStore.complete(Mockito.any())).thenReturn(Mono.empty());
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            webTestClient.post()
+                    .uri("/api/v1/customers")
+                    .header(IdempotentRequests.IDEMPOTENCY_KEY, "retry-key")
+                    .bodyValue(customerDto)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(CustomerResponseDto.class)
+                    .isEqualTo(customerResponseDto);
+        }
+
+        Mockito.verify(customerService, Mockito.times(1)).addCustomer(Mockito.any(), Mockito.any());
+        Mockito.verify(idempotencyStore, Mockito.times(1)).claim(Mockito.eq("POST /api/v1/customers retry-key"), Mockito.anyString());
+    }
+
     @Test
     void addCustomer_whenInvalid_shouldReturn404() {
         when(customerService.addCustomer(Mockito.any(), Mockito.any()))
@@ -141,6 +176,79 @@ public class CustomerControllerTest {
         Mockito.verify(customerService).getCustomer(Mockito.any(), Mockito.any());
     }
 
+    @Test
+    void getCustomerByEmail_whenBreakerIsOpen_shouldReturn503() {
+        when(customerService.getCustomer(Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.error(CallNotPermittedException.createCallNotPermittedException(
+                        CircuitBreaker.ofDefaults("customerRepository"))));
+        webTestClient.get()
+                .uri("/api/v1/customers/test@test.com")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void getCustomerByEmail_whenStoreTimesOut_shouldReturn504() {
+        when(customerService.getCustomer(Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.error(new TimeoutException("Did not observe any item or terminal signal within 2000ms")));
+        webTestClient.get()
+                .uri("/api/v1/customers/test@test.com")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    void getCustomerByEmail_whenVersionLookupHitsOpenBreaker_shouldReturn503() {
+        when(customerService.getCustomerVersion(Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.error(CallNotPermittedException.createCallNotPermittedException(
+                        CircuitBreaker.ofDefaults("customerRepository"))));
+        webTestClient.get()
+                .uri("/api/v1/customers/test@test.com")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void getCustomerByEmail_whenFound_shouldReturnETag() {
+        customerResponseDto.setVersion(3L);
+        when(customerService.getCustomer(Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.just(customerResponseDto));
+        webTestClient.get()
+                .uri("/api/v1/customers/test@test.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+    }
+
+    @Test
+    void getCustomerByEmail_whenETagMatches_shouldReturn304WithoutLoadingCustomer() {
+        when(customerService.getCustomerVersion(Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.just(3L));
+        webTestClient.get()
+                .uri("/api/v1/customers/test@test.com")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+        Mockito.verify(customerService, Mockito.never()).getCustomer(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getCustomerByEmail_whenETagIsStale_shouldReturn200() {
+        customerResponseDto.setVersion(4L);
+        when(customerService.getCustomerVersion(Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.just(4L));
+        when(customerService.getCustomer(Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.just(customerResponseDto));
+        webTestClient.get()
+                .uri("/api/v1/customers/test@test.com")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"");
+    }
+
     @Test
     void getAllCustomers_whenValid_shouldReturn200() {
         List<CustomerResponseDto> customers = Arrays.asList(customerResponseDto, customerResponseDto2);
@@ -160,7 +268,7 @@ public class CustomerControllerTest {
 
     @Test
     void updateCustomer_whenCustomerExists_shouldReturnUpdatedCustomer() {
-        when(customerService.updateCustomer(Mockito.any(), Mockito.any(), Mockito.any()))
+        when(customerService.updateCustomer(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
                 .thenReturn(Mono.just(customerResponseDto));
 
         webTestClient.put()
@@ -176,7 +284,7 @@ public class CustomerControllerTest {
 
     @Test
     void updateCustomer_whenCustomerNotFound_shouldReturn404() {
-        when(customerService.updateCustomer(Mockito.any(), Mockito.any(), Mockito.any()))
+        when(customerService.updateCustomer(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
                 .thenReturn(Mono.error(new CustomerNotFoundException("Customer not found with ID: testId")));
 
         webTestClient.put()
@@ -191,7 +299,7 @@ public class CustomerControllerTest {
     @Test
     void updateCustomer_whenInvalidData_shouldReturn400() {
         customerDto.setFirstName(""); // Invalid first name
-        when(customerService.updateCustomer(Mockito.any(), Mockito.any(), Mockito.any()))
+        when(customerService.updateCustomer(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
                 .thenReturn(Mono.error(new IllegalArgumentException("Invalid customer data")));
 
         webTestClient.put()
@@ -205,7 +313,7 @@ public class CustomerControllerTest {
 
     @Test
     void updateCustomer_whenDatabaseErrorOccurs_shouldReturn500() {
-        when(customerService.updateCustomer(Mockito.any(), Mockito.any(), Mockito.any()))
+        when(customerService.updateCustomer(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
                 .thenReturn(Mono.error(new RuntimeException("Database error")));
 
         webTestClient.put()
@@ -217,9 +325,49 @@ public class CustomerControllerTest {
         Mockito.verify(customerService).updateCustomer(Mockito.any(), Mockito.any(), Mockito.any());
     }
 
+    @Test
+    void updateCustomer_whenIfMatchGiven_shouldPassExpectedVersion() {
+        when(customerService.updateCustomer(Mockito.any(), Mockito.any(), Mockito.eq(2L), Mockito.any()))
+                .thenReturn(Mono.just(customerResponseDto));
+
+        webTestClient.put()
+                .uri("/api/v1/customers/{customerId}", "testId")
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .bodyValue(customerDto)
+                .exchange()
+                .expectStatus().isOk();
+
+        Mockito.verify(customerService).updateCustomer(Mockito.any(), Mockito.eq("testId"), Mockito.eq(2L), Mockito.any());
+    }
+
+    @Test
+    void updateCustomer_whenVersionMismatch_shouldReturn412() {
+        when(customerService.updateCustomer(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.error(new CustomException(HttpStatus.PRECONDITION_FAILED, "Customer has been modified")));
+
+        webTestClient.put()
+                .uri("/api/v1/customers/{customerId}", "testId")
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .bodyValue(customerDto)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void deleteCustomer_whenVersionMismatch_shouldReturn412() {
+        when(customerService.deleteCustomer(Mockito.anyString(), Mockito.any(), Mockito.anyString()))
+                .thenReturn(Mono.error(new CustomException(HttpStatus.PRECONDITION_FAILED, "Customer has been modified")));
+
+        webTestClient.delete()
+                .uri("/api/v1/customers/{customerId}", "testId")
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
     @Test
     void deleteCustomer_whenCustomerExists_shouldReturnNoContent() {
-        when(customerService.deleteCustomer(Mockito.anyString(), Mockito.anyString()))
+        when(customerService.deleteCustomer(Mockito.anyString(), Mockito.any(), Mockito.anyString()))
                 .thenReturn(Mono.empty());
 
         webTestClient.delete()
@@ -232,7 +380,7 @@ public class CustomerControllerTest {
 
     @Test
     void deleteCustomer_whenCustomerNotFound_shouldReturn404() {
-        when(customerService.deleteCustomer(Mockito.anyString(), Mockito.anyString()))
+        when(customerService.deleteCustomer(Mockito.anyString(), Mockito.any(), Mockito.anyString()))
                 .thenReturn(Mono.error(new CustomerNotFoundException("Customer not found with ID: testId")));
 
         webTestClient.delete()
@@ -245,7 +393,7 @@ public class CustomerControllerTest {
 
     @Test
     void deleteCustomer_whenDatabaseErrorOccurs_shouldReturn500() {
-        when(customerService.deleteCustomer(Mockito.anyString(), Mockito.anyString()))
+        when(customerService.deleteCustomer(Mockito.anyString(), Mockito.any(), Mockito.anyString()))
                 .thenReturn(Mono.error(new RuntimeException("Database error")));
 
         webTestClient.delete()
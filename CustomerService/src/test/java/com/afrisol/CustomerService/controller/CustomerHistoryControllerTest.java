@@ -0,0 +1,61 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerHistoryDto;
+import com.afrisol.CustomerService.model.CustomerAuditAction;
+import com.afrisol.CustomerService.model.CustomerAuditRecord;
+import com.afrisol.CustomerService.model.CustomerFieldChange;
+import com.afrisol.CustomerService.service.CustomerHistoryService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(CustomerHistoryController.class)
+public class CustomerHistoryControllerTest {
+    @MockBean
+    private CustomerHistoryService historyService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void getHistory_whenValid_shouldReturnPageOfChanges() {
+        CustomerAuditRecord record = CustomerAuditRecord.builder()
+                .id("1")
+                .customerId("testId")
+                .action(CustomerAuditAction.UPDATED)
+                .changes(List.of(new CustomerFieldChange("firstName", "John", "Johnny")))
+                .version(2L)
+                .build();
+        when(historyService.getHistory(Mockito.eq("testId"), Mockito.eq(1), Mockito.eq(5), Mockito.any()))
+                .thenReturn(Mono.just(CustomerHistoryDto.builder()
+                        .customerId("testId").page(1).size(5).totalChanges(6L).changes(List.of(record)).build()));
+
+        webTestClient.get()
+                .uri("/api/v1/customers/testId/history?page=1&size=5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalChanges").isEqualTo(6)
+                .jsonPath("$.changes[0].action").isEqualTo("UPDATED")
+                .jsonPath("$.changes[0].changes[0].after").isEqualTo("Johnny");
+    }
+
+    @Test
+    void getHistory_whenPageSizeTooLarge_shouldReturn400() {
+        when(historyService.getHistory(Mockito.eq("testId"), Mockito.eq(0), Mockito.eq(500), Mockito.any()))
+                .thenReturn(Mono.error(new IllegalArgumentException("Page must be 0 or more and size between 1 and 100")));
+
+        webTestClient.get()
+                .uri("/api/v1/customers/testId/history?size=500")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,64 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerLookupRequestDto;
+import com.afrisol.CustomerService.dto.CustomerLookupResultDto;
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(CustomerLookupController.class)
+public class CustomerLookupControllerTest {
+    @MockBean
+    private CustomerService customerService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void lookupCustomers_whenValid_shouldStreamResults() {
+        CustomerResponseDto customerResponseDto = CustomerResponseDto.builder()
+                .customerId("testId")
+                .firstName("John")
+                .lastName("Doe")
+                .build();
+        when(customerService.lookupCustomers(Mockito.any(), Mockito.any()))
+                .thenReturn(Flux.just(
+                        new CustomerLookupResultDto("testId", true, customerResponseDto),
+                        new CustomerLookupResultDto("missingId", false, null)));
+
+        webTestClient.post()
+                .uri("/api/v1/customers:lookup")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(CustomerLookupRequestDto.builder().ids(List.of("testId", "missingId")).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CustomerLookupResultDto.class)
+                .contains(new CustomerLookupResultDto("testId", true, customerResponseDto),
+                        new CustomerLookupResultDto("missingId", false, null));
+
+        Mockito.verify(customerService).lookupCustomers(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void lookupCustomers_whenTooManyKeys_shouldReturn400() {
+        when(customerService.lookupCustomers(Mockito.any(), Mockito.any()))
+                .thenReturn(Flux.error(new IllegalArgumentException("At most 1000 customers can be looked up at once")));
+
+        webTestClient.post()
+                .uri("/api/v1/customers:lookup")
+                .bodyValue(new CustomerLookupRequestDto())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
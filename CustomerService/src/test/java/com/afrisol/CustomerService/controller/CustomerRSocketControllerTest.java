@@ -0,0 +1,155 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerLookupRequestDto;
+import com.afrisol.CustomerService.dto.CustomerLookupResultDto;
+import com.afrisol.CustomerService.dto.CustomerRequestDto;
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.exception.CustomerNotFoundException;
+import com.afrisol.CustomerService.service.CustomerService;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.exceptions.ApplicationErrorException;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Talks to {@link CustomerRSocketController} over a real TCP connection with CBOR payloads, the way the
+ * internal services do.
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerRSocketControllerTest {
+
+    @Mock
+    private CustomerService customerService;
+
+    private CloseableChannel server;
+    private RSocketRequester requester;
+    private CustomerResponseDto customerResponseDto;
+
+    @BeforeEach
+    void setUp() {
+        RSocketStrategies strategies = RSocketStrategies.builder()
+                .encoders(encoders -> encoders.add(new Jackson2CborEncoder()))
+                .decoders(decoders -> decoders.add(new Jackson2CborDecoder()))
+                .build();
+        RSocketMessageHandler handler = new RSocketMessageHandler();
+        handler.setRSocketStrategies(strategies);
+        handler.setHandlers(List.of(new CustomerRSocketController(customerService)));
+        handler.afterPropertiesSet();
+        server = RSocketServer.create(handler.responder())
+                .bind(TcpServerTransport.create("localhost", 0))
+                .block();
+        requester = RSocketRequester.builder()
+                .rsocketStrategies(strategies)
+                .dataMimeType(MimeTypeUtils.parseMimeType("application/cbor"))
+                .tcp("localhost", server.address().getPort());
+
+        customerResponseDto = CustomerResponseDto.builder()
+                .customerId("testId")
+                .firstName("John")
+                .lastName("Doe")
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        requester.dispose();
+        server.dispose();
+    }
+
+    @Test
+    void getCustomer_whenExists_shouldRespondWithCustomer() {
+        when(customerService.getCustomer(Mockito.eq("test@test.com"), Mockito.anyString()))
+                .thenReturn(Mono.just(customerResponseDto));
+
+        StepVerifier.create(requester.route("customers.get").data("test@test.com").retrieveMono(CustomerResponseDto.class))
+                .expectNext(customerResponseDto)
+                .verifyComplete();
+    }
+
+    @Test
+    void getCustomer_whenNotFound_shouldRespondWithError() {
+        when(customerService.getCustomer(Mockito.anyString(), Mockito.anyString()))
+                .thenReturn(Mono.error(new CustomerNotFoundException("Customer not found")));
+
+        StepVerifier.create(requester.route("customers.get").data("missing@test.com").retrieveMono(CustomerResponseDto.class))
+                .expectErrorMatches(throwable -> throwable instanceof ApplicationErrorException &&
+                        throwable.getMessage().equals("Customer not found"))
+                .verify();
+    }
+
+    @Test
+    void addCustomer_shouldRespondWithCreatedCustomer() {
+        when(customerService.addCustomer(Mockito.any(CustomerRequestDto.class), Mockito.anyString()))
+                .thenReturn(Mono.just(customerResponseDto));
+
+        CustomerRequestDto customerDto = CustomerRequestDto.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("test@test.com")
+                .build();
+        StepVerifier.create(requester.route("customers.create").data(customerDto).retrieveMono(CustomerResponseDto.class))
+                .expectNext(customerResponseDto)
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllCustomers_shouldStreamOnlyRequestedCustomers() {
+        when(customerService.getAllCustomers(Mockito.anyString()))
+                .thenReturn(Flux.range(0, 10).map(i -> customerResponseDto));
+
+        StepVerifier.create(requester.route("customers.list").retrieveFlux(CustomerResponseDto.class), 2)
+                .expectNext(customerResponseDto, customerResponseDto)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void lookupCustomers_shouldAnswerEveryLookupOnTheChannelInOrder() {
+        when(customerService.lookupCustomers(Mockito.any(CustomerLookupRequestDto.class), Mockito.anyString()))
+                .thenAnswer(invocation -> {
+                    CustomerLookupRequestDto lookup = invocation.getArgument(0);
+                    return Flux.fromIterable(lookup.getIds())
+                            .map(id -> new CustomerLookupResultDto(id, "testId".equals(id), "testId".equals(id) ? customerResponseDto : null));
+                });
+
+        Flux<CustomerLookupRequestDto> lookups = Flux.just(
+                CustomerLookupRequestDto.builder().ids(List.of("testId")).build(),
+                CustomerLookupRequestDto.builder().ids(List.of("missingId")).build());
+        StepVerifier.create(requester.route("customers.lookup").data(lookups, CustomerLookupRequestDto.class)
+                        .retrieveFlux(CustomerLookupResultDto.class))
+                .expectNext(new CustomerLookupResultDto("testId", true, customerResponseDto))
+                .expectNext(new CustomerLookupResultDto("missingId", false, null))
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteCustomer_shouldComplete() {
+        when(customerService.deleteCustomer(Mockito.eq("testId"), Mockito.anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(requester.route("customers.delete.testId").retrieveMono(Void.class))
+                .verifyComplete();
+
+        verify(customerService).deleteCustomer(Mockito.eq("testId"), Mockito.anyString());
+    }
+}
@@ -0,0 +1,61 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.service.CustomerSearchService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(CustomerSearchController.class)
+public class CustomerSearchControllerTest {
+    @MockBean
+    private CustomerSearchService searchService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void searchCustomers_whenValid_shouldReturnRankedCustomers() {
+        CustomerResponseDto john = CustomerResponseDto.builder().customerId("1").firstName("John").lastName("Doe").build();
+        CustomerResponseDto johnny = CustomerResponseDto.builder().customerId("2").firstName("Johnny").lastName("Cash").build();
+        when(searchService.searchCustomers(Mockito.eq("joh"), Mockito.eq(10), Mockito.any()))
+                .thenReturn(Flux.just(john, johnny));
+
+        webTestClient.get()
+                .uri("/api/v1/customers/search?q=joh")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CustomerResponseDto.class)
+                .containsExactly(john, johnny);
+    }
+
+    @Test
+    void searchCustomers_whenQueryTooShort_shouldReturn400() {
+        when(searchService.searchCustomers(Mockito.eq("j"), Mockito.eq(5), Mockito.any()))
+                .thenReturn(Flux.error(new IllegalArgumentException("Search query needs at least 2 letters or digits")));
+
+        webTestClient.get()
+                .uri("/api/v1/customers/search?q=j&limit=5")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void searchCustomers_whenOverBudget_shouldReturn504() {
+        when(searchService.searchCustomers(Mockito.any(), Mockito.anyInt(), Mockito.any()))
+                .thenReturn(Flux.error(new TimeoutException("Did not observe any item or terminal signal within 300ms")));
+
+        webTestClient.get()
+                .uri("/api/v1/customers/search?q=john")
+                .exchange()
+                .expectStatus().isEqualTo(504);
+    }
+}
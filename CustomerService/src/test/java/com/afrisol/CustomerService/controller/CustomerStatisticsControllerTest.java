@@ -0,0 +1,57 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerStatisticsDto;
+import com.afrisol.CustomerService.dto.StatisticsBucketDto;
+import com.afrisol.CustomerService.exception.CustomException;
+import com.afrisol.CustomerService.service.CustomerStatisticsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(CustomerStatisticsController.class)
+public class CustomerStatisticsControllerTest {
+    @MockBean
+    private CustomerStatisticsService statisticsService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void getStatistics_whenValid_shouldReturn200() {
+        CustomerStatisticsDto statistics = CustomerStatisticsDto.builder()
+                .totalCustomers(2)
+                .customersByState(List.of(new StatisticsBucketDto("IL", 2)))
+                .build();
+        when(statisticsService.getStatistics(Mockito.any())).thenReturn(Mono.just(statistics));
+
+        webTestClient.get()
+                .uri("/api/v1/customers/statistics")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalCustomers").isEqualTo(2)
+                .jsonPath("$.customersByState[0].label").isEqualTo("IL");
+
+        Mockito.verify(statisticsService).getStatistics(Mockito.any());
+    }
+
+    @Test
+    void getStatistics_whenNotComputedYet_shouldReturn503() {
+        when(statisticsService.getStatistics(Mockito.any()))
+                .thenReturn(Mono.error(new CustomException(HttpStatus.SERVICE_UNAVAILABLE, "Customer statistics are not available yet")));
+
+        webTestClient.get()
+                .uri("/api/v1/customers/statistics")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,210 @@
+package com.afrisol.CustomerService.controller;
+
+import com.afrisol.CustomerService.dto.CustomerLookupRequestDto;
+import com.afrisol.CustomerService.dto.CustomerLookupResultDto;
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.idempotency.IdempotencyProperties;
+import com.afrisol.CustomerService.idempotency.IdempotencyStore;
+import com.afrisol.CustomerService.idempotency.IdempotentRequests;
+import com.afrisol.CustomerService.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the JSON over HTTP/1.1 path with the CBOR over RSocket path for the calls the internal services make,
+ * with the same controllers and a stubbed {@link CustomerService}, so only transport and encoding differ. Not
+ * part of the regular build; run it with
+ * <pre>
+ * mvn test -Dtest=CustomerTransportBenchmarkTest -Dbenchmark=true -Djacoco.skip=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CustomerTransportBenchmarkTest {
+
+    private static final int WARM_UP_REQUESTS = 5_000;
+    private static final int REQUESTS = 50_000;
+    private static final int CONCURRENCY = 64;
+    private static final int LOOKUPS = 2_000;
+    private static final int KEYS_PER_LOOKUP = 50;
+
+    private AnnotationConfigApplicationContext httpContext;
+    private DisposableServer httpServer;
+    private CloseableChannel rsocketServer;
+    private WebClient webClient;
+    private RSocketRequester requester;
+
+    @Configuration
+    @EnableWebFlux
+    static class WebFluxConfiguration {
+    }
+
+    @BeforeEach
+    void setUp() {
+        CustomerService customerService = stubCustomerService();
+
+        httpContext = new AnnotationConfigApplicationContext();
+        httpContext.registerBean(CustomerService.class, () -> customerService);
+        httpContext.registerBean(IdempotentRequests.class, () -> new IdempotentRequests(
+                Mockito.mock(IdempotencyStore.class), new IdempotencyProperties(), new ObjectMapper()));
+        httpContext.register(WebFluxConfiguration.class, CustomerController.class, CustomerLookupController.class);
+        httpContext.refresh();
+        httpServer = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle(new ReactorHttpHandlerAdapter(WebHttpHandlerBuilder.applicationContext(httpContext).build()))
+                .bindNow();
+        webClient = WebClient.create("http://localhost:" + httpServer.port());
+
+        RSocketStrategies strategies = RSocketStrategies.builder()
+                .encoders(encoders -> encoders.add(new Jackson2CborEncoder()))
+                .decoders(decoders -> decoders.add(new Jackson2CborDecoder()))
+                .build();
+        RSocketMessageHandler handler = new RSocketMessageHandler();
+        handler.setRSocketStrategies(strategies);
+        handler.setHandlers(List.of(new CustomerRSocketController(customerService)));
+        handler.afterPropertiesSet();
+        rsocketServer = RSocketServer.create(handler.responder())
+                .bind(TcpServerTransport.create("localhost", 0))
+                .block();
+        requester = RSocketRequester.builder()
+                .rsocketStrategies(strategies)
+                .dataMimeType(MimeTypeUtils.parseMimeType("application/cbor"))
+                .tcp("localhost", rsocketServer.address().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        requester.dispose();
+        rsocketServer.dispose();
+        httpServer.disposeNow();
+        httpContext.close();
+    }
+
+    @Test
+    void compareTransports() {
+        IntFunction<Mono<CustomerResponseDto>> httpGet = i -> webClient.get()
+                .uri("/api/v1/customers/{email}", "customer" + i + "@test.com")
+                .retrieve()
+                .bodyToMono(CustomerResponseDto.class);
+        IntFunction<Mono<CustomerResponseDto>> rsocketGet = i -> requester.route("customers.get")
+                .data("customer" + i + "@test.com")
+                .retrieveMono(CustomerResponseDto.class);
+        report("get        HTTP/JSON   ", requestResponse(httpGet));
+        report("get        RSocket/CBOR", requestResponse(rsocketGet));
+
+        long httpResults = bulkLookup(() -> Flux.range(0, LOOKUPS)
+                .flatMapSequential(i -> webClient.post()
+                        .uri("/api/v1/customers:lookup")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .bodyValue(lookup(i))
+                        .retrieve()
+                        .bodyToFlux(CustomerLookupResultDto.class), CONCURRENCY), "lookup     HTTP/NDJSON ");
+        long rsocketResults = bulkLookup(() -> requester.route("customers.lookup")
+                .data(Flux.range(0, LOOKUPS).map(this::lookup), CustomerLookupRequestDto.class)
+                .retrieveFlux(CustomerLookupResultDto.class), "lookup     RSocket/CBOR");
+        assertEquals(httpResults, rsocketResults);
+    }
+
+    private long[] requestResponse(IntFunction<Mono<CustomerResponseDto>> call) {
+        measure(call, WARM_UP_REQUESTS);
+        return measure(call, REQUESTS);
+    }
+
+    /**
+     * Issues {@code count} calls, {@link #CONCURRENCY} at a time, and returns their latencies in nanoseconds
+     * followed by the elapsed time of the whole run.
+     */
+    private long[] measure(IntFunction<Mono<CustomerResponseDto>> call, int count) {
+        long[] latencies = new long[count + 1];
+        long start = System.nanoTime();
+        Long completed = Flux.range(0, count)
+                .flatMap(i -> {
+                    long sent = System.nanoTime();
+                    return call.apply(i).doOnNext(customer -> latencies[i] = System.nanoTime() - sent);
+                }, CONCURRENCY)
+                .count()
+                .block();
+        latencies[count] = System.nanoTime() - start;
+        assertEquals(count, completed.intValue());
+        return latencies;
+    }
+
+    private long bulkLookup(Supplier<Flux<CustomerLookupResultDto>> lookups, String label) {
+        lookups.get().blockLast();
+        long start = System.nanoTime();
+        Long results = lookups.get().count().block();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s %,10.0f results/s  (%d lookups of %d keys in %d ms)%n",
+                label, results * 1e9 / elapsed, LOOKUPS, KEYS_PER_LOOKUP, elapsed / 1_000_000);
+        return results;
+    }
+
+    private static void report(String label, long[] measurement) {
+        int count = measurement.length - 1;
+        long elapsed = measurement[count];
+        long[] latencies = Arrays.copyOf(measurement, count);
+        Arrays.sort(latencies);
+        System.out.printf("%s %,10.0f req/s  p50 %6d us  p99 %6d us  p99.9 %6d us%n",
+                label,
+                count * 1e9 / elapsed,
+                latencies[count / 2] / 1_000,
+                latencies[(int) (count * 0.99)] / 1_000,
+                latencies[(int) (count * 0.999)] / 1_000);
+    }
+
+    private CustomerLookupRequestDto lookup(int i) {
+        return CustomerLookupRequestDto.builder()
+                .ids(IntStream.range(0, KEYS_PER_LOOKUP).mapToObj(key -> "customer-" + i + "-" + key).toList())
+                .build();
+    }
+
+    private static CustomerService stubCustomerService() {
+        CustomerService customerService = Mockito.mock(CustomerService.class, Mockito.withSettings().stubOnly());
+        CustomerResponseDto customer = CustomerResponseDto.builder()
+                .customerId("65f1c0ffee0000000000abcd")
+                .firstName("John")
+                .lastName("Doe")
+                .phone("+254700000000")
+                .build();
+        when(customerService.getCustomer(Mockito.anyString(), Mockito.anyString())).thenReturn(Mono.just(customer));
+        when(customerService.lookupCustomers(Mockito.any(CustomerLookupRequestDto.class), Mockito.anyString()))
+                .thenAnswer(invocation -> {
+                    CustomerLookupRequestDto lookup = invocation.getArgument(0);
+                    return Flux.fromIterable(lookup.getIds()).map(id -> new CustomerLookupResultDto(id, true, customer));
+                });
+        return customerService;
+    }
+}
@@ -0,0 +1,242 @@
+package com.afrisol.CustomerService.idempotency;
+
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.exception.CustomException;
+import com.afrisol.CustomerService.model.IdempotencyRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentRequestsTest {
+
+    private static final String SCOPE = "POST /api/v1/customers";
+    private static final String ID = SCOPE + " key-1";
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    private IdempotentRequests idempotentRequests;
+    private CustomerResponseDto created;
+    private AtomicInteger runs;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setWaitTimeout(Duration.ofMillis(50));
+        properties.setPollInterval(Duration.ofMillis(10));
+        properties.setCompleteBackoff(Duration.ofMillis(1));
+        idempotentRequests = new IdempotentRequests(idempotencyStore, properties, new ObjectMapper());
+        created = CustomerResponseDto.builder().customerId("testId").firstName("John").lastName("Doe").build();
+        runs = new AtomicInteger();
+    }
+
+    @Test
+    void execute_whenNoKey_shouldRunRequestWithoutIdempotencyRecord() {
+        StepVerifier.create(idempotentRequests.execute(SCOPE, null, Map.of("firstName", "John"), request()))
+                .expectNextMatches(response -> response.getBody() == created)
+                .verifyComplete();
+
+        assertEquals(1, runs.get());
+        Mockito.verifyNoInteractions(idempotencyStore);
+    }
+
+    @Test
+    void execute_whenKeyIsNew_shouldClaimRunAndStoreResponse() {
+        when(idempotencyStore.findById(ID)).thenReturn(Mono.empty());
+        when(idempotencyStore.claim(Mockito.eq(ID), Mockito.anyString())).thenReturn(Mono.just(true));
+        when(idempotencyStore.complete(Mockito.any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "John"), request()))
+                .expectNextMatches(response -> response.getStatusCode() == HttpStatus.OK
+                        && "\"3\"".equals(response.getHeaders().getETag()))
+                .verifyComplete();
+        // The replay is answered from memory
+        StepVerifier.create(idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "John"), request()))
+                .expectNextMatches(response -> response.getBody().equals(created))
+                .verifyComplete();
+
+        assertEquals(1, runs.get());
+        verify(idempotencyStore).complete(Mockito.argThat(record -> record.getStatus() == 200
+                && record.getResponse().equals(created) && "\"3\"".equals(record.getETag())));
+        verify(idempotencyStore, Mockito.times(1)).findById(ID);
+    }
+
+    @Test
+    void execute_whenStoredByAnotherInstance_shouldReplayWithoutRunning() {
+        when(idempotencyStore.findById(ID)).thenReturn(Mono.just(completed(hashOf(Map.of("firstName", "John")))));
+
+        StepVerifier.create(idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "John"), request()))
+                .expectNextMatches(response -> response.getBody().equals(created))
+                .verifyComplete();
+
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void execute_whenKeyReusedWithDifferentRequest_shouldReturn422() {
+        when(idempotencyStore.findById(ID)).thenReturn(Mono.just(completed(hashOf(Map.of("firstName", "John")))));
+
+        StepVerifier.create(idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "Jane"), request()))
+                .expectErrorMatches(throwable -> throwable instanceof CustomException
+                        && ((CustomException) throwable).getStatus() == HttpStatus.UNPROCESSABLE_ENTITY)
+                .verify();
+
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void execute_whenDuplicateArrivesWhileRunning_shouldShareTheResult() {
+        when(idempotencyStore.findById(ID)).thenReturn(Mono.empty());
+        when(idempotencyStore.claim(Mockito.eq(ID), Mockito.anyString())).thenReturn(Mono.just(true));
+        when(idempotencyStore.complete(Mockito.any())).thenReturn(Mono.empty());
+        Sinks.One<ResponseEntity<CustomerResponseDto>> response = Sinks.one();
+        Supplier<Mono<ResponseEntity<CustomerResponseDto>>> slowRequest = () -> {
+            runs.incrementAndGet();
+            return response.asMono();
+        };
+
+        Mono<ResponseEntity<CustomerResponseDto>> first = idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "John"), slowRequest);
+        Mono<ResponseEntity<CustomerResponseDto>> duplicate = idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "John"), slowRequest);
+
+        StepVerifier.create(Mono.zip(first, duplicate))
+                .then(() -> response.tryEmitValue(ResponseEntity.ok(created)))
+                .expectNextMatches(both -> both.getT1().getBody().equals(created) && both.getT2().getBody().equals(created))
+                .verifyComplete();
+
+        assertEquals(1, runs.get());
+        verify(idempotencyStore, Mockito.times(1)).claim(Mockito.eq(ID), Mockito.anyString());
+    }
+
+    @Test
+    void execute_whenClaimedElsewhere_shouldWaitForTheResponse() {
+        String requestHash = hashOf(Map.of("firstName", "John"));
+        IdempotencyRecord pending = IdempotencyRecord.builder().id(ID).requestHash(requestHash).claimedAt(Instant.now()).build();
+        when(idempotencyStore.findById(ID)).thenReturn(Mono.just(pending), Mono.just(pending), Mono.just(completed(requestHash)));
+
+        StepVerifier.create(idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "John"), request()))
+                .expectNextMatches(response -> response.getBody().equals(created))
+                .verifyComplete();
+
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void execute_whenClaimedElsewhereForTooLong_shouldReturn409() {
+        IdempotencyRecord pending = IdempotencyRecord.builder()
+                .id(ID).requestHash(hashOf(Map.of("firstName", "John"))).claimedAt(Instant.now()).build();
+        when(idempotencyStore.findById(ID)).thenReturn(Mono.just(pending));
+
+        StepVerifier.create(idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "John"), request()))
+                .expectErrorMatches(throwable -> throwable instanceof CustomException
+                        && ((CustomException) throwable).getStatus() == HttpStatus.CONFLICT)
+                .verify();
+
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void execute_whenRequestFails_shouldReleaseClaimSoRetryRunsAgain() {
+        when(idempotencyStore.findById(ID)).thenReturn(Mono.empty());
+        when(idempotencyStore.claim(Mockito.eq(ID), Mockito.anyString())).thenReturn(Mono.just(true));
+        when(idempotencyStore.release(ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "John"),
+                        () -> Mono.error(new RuntimeException("Database error"))))
+                .expectErrorMessage("Database error")
+                .verify();
+
+        verify(idempotencyStore).release(ID);
+        verify(idempotencyStore, Mockito.never()).complete(Mockito.any());
+    }
+
+    @Test
+    void execute_whenStoringResponseFailsOnce_shouldRetryAndAnswer() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(idempotencyStore.findById(ID)).thenReturn(Mono.empty());
+        when(idempotencyStore.claim(Mockito.eq(ID), Mockito.anyString())).thenReturn(Mono.just(true));
+        when(idempotencyStore.complete(Mockito.any())).thenReturn(Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.error(new RuntimeException("Database error"))
+                : Mono.empty()));
+
+        StepVerifier.create(idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "John"), request()))
+                .expectNextMatches(response -> response.getBody().equals(created))
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        verify(idempotencyStore, Mockito.never()).release(Mockito.any());
+    }
+
+    @Test
+    void execute_whenStoringResponseKeepsFailing_shouldKeepClaimAndFail() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(idempotencyStore.findById(ID)).thenReturn(Mono.empty());
+        when(idempotencyStore.claim(Mockito.eq(ID), Mockito.anyString())).thenReturn(Mono.just(true));
+        when(idempotencyStore.complete(Mockito.any())).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new RuntimeException("Database error"));
+        }));
+
+        StepVerifier.create(idempotentRequests.execute(SCOPE, "key-1", Map.of("firstName", "John"), request()))
+                .expectErrorMatches(throwable -> throwable instanceof CustomException
+                        && ((CustomException) throwable).getStatus() == HttpStatus.INTERNAL_SERVER_ERROR)
+                .verify();
+
+        assertEquals(1, runs.get());
+        assertEquals(3, attempts.get());
+        verify(idempotencyStore, Mockito.never()).release(Mockito.any());
+    }
+
+    @Test
+    void execute_whenKeyTooLong_shouldFail() {
+        StepVerifier.create(idempotentRequests.execute(SCOPE, "k".repeat(IdempotentRequests.MAX_KEY_LENGTH + 1),
+                        Map.of("firstName", "John"), request()))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    private Supplier<Mono<ResponseEntity<CustomerResponseDto>>> request() {
+        return () -> Mono.fromSupplier(() -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok().eTag("\"3\"").body(created);
+        });
+    }
+
+    private IdempotencyRecord completed(String requestHash) {
+        return IdempotencyRecord.builder()
+                .id(ID)
+                .requestHash(requestHash)
+                .status(200)
+                .response(created)
+                .claimedAt(Instant.now())
+                .build();
+    }
+
+    private String hashOf(Object payload) {
+        try {
+            return idempotentRequests.hash(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
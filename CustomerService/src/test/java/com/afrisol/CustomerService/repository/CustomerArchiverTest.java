@@ -0,0 +1,157 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.model.Customer;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerArchiverTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> archive;
+
+    private CustomerArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new CustomerArchiver(mongoTemplate, Duration.ofDays(30), 2, Duration.ofMillis(1), 3);
+        when(mongoTemplate.getCollectionName(Customer.class)).thenReturn("customers");
+    }
+
+    @Test
+    void archiveExpired_shouldMoveBatchesUntilOneComesBackShort() {
+        when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Document.class), Mockito.eq("customers")))
+                .thenReturn(Flux.just(customer("1"), customer("2")), Flux.just(customer("3")));
+        when(mongoTemplate.getCollection(CustomerArchiver.ARCHIVE_COLLECTION)).thenReturn(Mono.just(archive));
+        when(archive.insertMany(Mockito.anyList(), Mockito.any(InsertManyOptions.class))).thenReturn(Mono.empty());
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq("customers")))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(2)), Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(archiver.archiveExpired())
+                .expectNext(3L)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> expired = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, Mockito.times(2)).find(expired.capture(), Mockito.eq(Document.class), Mockito.eq("customers"));
+        assertEquals(2, expired.getValue().getLimit());
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, Mockito.times(2)).remove(removed.capture(), Mockito.eq("customers"));
+        assertTrue(removed.getAllValues().get(0).getQueryObject().containsKey("_id"));
+        assertTrue(removed.getAllValues().get(0).getQueryObject().containsKey("deletedAt"));
+    }
+
+    @Test
+    void archiveExpired_whenCustomersChangedSinceRead_shouldReportOnlyRemovedAndKeepGoing() {
+        when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Document.class), Mockito.eq("customers")))
+                .thenReturn(Flux.just(customer("1"), customer("2")), Flux.just(customer("3")));
+        when(mongoTemplate.getCollection(CustomerArchiver.ARCHIVE_COLLECTION)).thenReturn(Mono.just(archive));
+        when(archive.insertMany(Mockito.anyList(), Mockito.any(InsertManyOptions.class))).thenReturn(Mono.empty());
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq("customers")))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)), Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(archiver.archiveExpired())
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(mongoTemplate, Mockito.times(2)).find(Mockito.any(Query.class), Mockito.eq(Document.class), Mockito.eq("customers"));
+    }
+
+    @Test
+    void archiveExpired_shouldStopAtMaxBatches() {
+        when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Document.class), Mockito.eq("customers")))
+                .thenAnswer(invocation -> Flux.just(customer("1"), customer("2")));
+        when(mongoTemplate.getCollection(CustomerArchiver.ARCHIVE_COLLECTION)).thenReturn(Mono.just(archive));
+        when(archive.insertMany(Mockito.anyList(), Mockito.any(InsertManyOptions.class))).thenReturn(Mono.empty());
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq("customers")))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(2)));
+
+        StepVerifier.create(archiver.archiveExpired())
+                .expectNext(6L)
+                .verifyComplete();
+
+        verify(mongoTemplate, Mockito.times(3)).remove(Mockito.any(Query.class), Mockito.eq("customers"));
+    }
+
+    @Test
+    void archiveExpired_whenAlreadyArchived_shouldIgnoreDuplicatesAndRemove() {
+        when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Document.class), Mockito.eq("customers")))
+                .thenReturn(Flux.just(customer("1")));
+        when(mongoTemplate.getCollection(CustomerArchiver.ARCHIVE_COLLECTION)).thenReturn(Mono.just(archive));
+        when(archive.insertMany(Mockito.anyList(), Mockito.any(InsertManyOptions.class)))
+                .thenReturn(Mono.error(bulkWriteFailure(11000)));
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq("customers")))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(archiver.archiveExpired())
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void archiveExpired_whenCopyFails_shouldKeepCustomers() {
+        when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Document.class), Mockito.eq("customers")))
+                .thenReturn(Flux.just(customer("1")));
+        when(mongoTemplate.getCollection(CustomerArchiver.ARCHIVE_COLLECTION)).thenReturn(Mono.just(archive));
+        when(archive.insertMany(Mockito.anyList(), Mockito.any(InsertManyOptions.class)))
+                .thenReturn(Mono.error(bulkWriteFailure(121)));
+
+        StepVerifier.create(archiver.archiveExpired())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(mongoTemplate, Mockito.never()).remove(Mockito.any(Query.class), Mockito.eq("customers"));
+    }
+
+    @Test
+    void archiveExpired_whenNothingExpired_shouldNotTouchArchive() {
+        when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Document.class), Mockito.eq("customers")))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(archiver.archiveExpired())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(mongoTemplate, Mockito.never()).getCollection(CustomerArchiver.ARCHIVE_COLLECTION);
+    }
+
+    private static Document customer(String id) {
+        return new Document("_id", id).append("firstName", "John");
+    }
+
+    private static MongoBulkWriteException bulkWriteFailure(int code) {
+        return new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(new BulkWriteError(code, "write failed", new BsonDocument(), 0)),
+                null, new ServerAddress(), Set.of());
+    }
+}
@@ -0,0 +1,88 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.model.Customer;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode and encode throughput of the reflective mapping against {@link CustomerCodec}, both through a
+ * {@link MappingMongoConverter} as the template uses them, so the numbers include the converter's own dispatch.
+ * Both decode the same document, as the codec writes exactly what the reflective mapping does. Not part of
+ * the regular build; run it with
+ * <pre>
+ * mvn test -Dtest=CustomerCodecBenchmark -Dbenchmark=true -Djacoco.skip=true
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerCodecBenchmark {
+
+    private MappingMongoConverter reflective;
+    private MappingMongoConverter codec;
+    private Customer customer;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        reflective = CustomerCodecTest.converter(List.of());
+        codec = CustomerCodecTest.converter(CustomerCodec.converters());
+        customer = CustomerCodecTest.customer();
+        document = new Document();
+        reflective.write(customer, document);
+    }
+
+    @Benchmark
+    public Customer decodeReflective() {
+        return reflective.read(Customer.class, document);
+    }
+
+    @Benchmark
+    public Customer decodeCodec() {
+        return codec.read(Customer.class, document);
+    }
+
+    @Benchmark
+    public Document encodeReflective() {
+        Document document = new Document();
+        reflective.write(customer, document);
+        return document;
+    }
+
+    @Benchmark
+    public Document encodeCodec() {
+        Document document = new Document();
+        codec.write(customer, document);
+        return document;
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CustomerCodecBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
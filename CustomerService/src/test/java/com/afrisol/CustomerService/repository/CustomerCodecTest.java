@@ -0,0 +1,117 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.model.Address;
+import com.afrisol.CustomerService.model.Customer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerCodecTest {
+
+    @Test
+    void decode_shouldReadDocumentsWrittenByReflectiveMapping() {
+        Customer customer = customer();
+        Document legacy = new Document();
+        converter(List.of()).write(customer, legacy);
+
+        assertInstanceOf(java.util.Date.class, legacy.get("dateOfBirth"));
+        assertEquals(customer, CustomerCodec.decode(legacy));
+    }
+
+    @Test
+    void encode_shouldWriteWhatReflectiveMappingWrites() {
+        Customer customer = customer();
+        Document legacy = new Document();
+        converter(List.of()).write(customer, legacy);
+
+        Document document = CustomerCodec.encode(customer);
+
+        assertEquals(new ObjectId("65f0c0ffee0000000000abcd"), document.get("_id"));
+        assertEquals(legacy.get("dateOfBirth"), document.get("dateOfBirth"));
+        assertEquals(52_000d, document.get("income"));
+        assertEquals(List.of("john", "doe", "john doe", "doe john"), document.get("searchNames"));
+        assertTrue(document.containsKey("deletedAt"));
+        assertNull(document.get("deletedAt"));
+    }
+
+    @Test
+    void decode_shouldReadCompactDateOfBirthAndIncome() {
+        Document compact = CustomerCodec.encode(customer())
+                .append("dateOfBirth", (int) LocalDate.of(1985, 2, 28).toEpochDay())
+                .append("income", 52_000);
+
+        assertEquals(customer(), CustomerCodec.decode(compact));
+    }
+
+    @Test
+    void encode_shouldRoundTripThroughRegisteredConverter() {
+        MappingMongoConverter converter = converter(CustomerCodec.converters());
+        Customer customer = customer();
+        customer.setCustomerId("legacy-id");
+        customer.setDeletedAt(Instant.ofEpochMilli(1_700_000_000_123L));
+        Document document = new Document();
+
+        converter.write(customer, document);
+
+        assertEquals("legacy-id", document.get("_id"));
+        assertFalse(document.containsKey("_class"));
+        assertEquals(customer, converter.read(Customer.class, document));
+    }
+
+    @Test
+    void decode_shouldReadProjections() {
+        Document projection = new Document("_id", new ObjectId("65f0c0ffee0000000000abcd"))
+                .append("firstName", "John")
+                .append("version", 3);
+
+        Customer customer = CustomerCodec.decode(projection);
+
+        assertEquals("65f0c0ffee0000000000abcd", customer.getCustomerId());
+        assertEquals("John", customer.getFirstName());
+        assertEquals(3L, customer.getVersion().longValue());
+        assertNull(customer.getAddress());
+        assertNull(customer.getDateOfBirth());
+        assertNull(customer.getIncome());
+        assertNull(customer.getSearchNames());
+    }
+
+    static Customer customer() {
+        return Customer.builder()
+                .customerId("65f0c0ffee0000000000abcd")
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@test.com")
+                .phone("0123456789")
+                .address(new Address("1 Main Street", "Accra", "Greater Accra"))
+                .dateOfBirth(LocalDate.of(1985, 2, 28))
+                .income(52_000d)
+                .version(4L)
+                .searchNames(CustomerNames.searchNames("John", "Doe"))
+                .build();
+    }
+
+    static MappingMongoConverter converter(List<?> converters) {
+        MongoCustomConversions conversions = new MongoCustomConversions(converters);
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
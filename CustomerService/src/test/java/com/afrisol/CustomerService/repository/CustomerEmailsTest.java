@@ -0,0 +1,15 @@
+package com.afrisol.CustomerService.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CustomerEmailsTest {
+
+    @Test
+    void normalize_shouldTrimAndFoldCase() {
+        assertEquals("john@test.com", CustomerEmails.normalize("  John@TEST.com "));
+        assertNull(CustomerEmails.normalize(null));
+    }
+}
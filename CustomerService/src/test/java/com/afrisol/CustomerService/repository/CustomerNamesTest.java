@@ -0,0 +1,31 @@
+package com.afrisol.CustomerService.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerNamesTest {
+
+    @Test
+    void normalize_shouldFoldCaseAccentsAndPunctuation() {
+        assertEquals("jose oneil smith", CustomerNames.normalize("  Jos\u00e9 O'Neil-Smith "));
+        assertEquals("", CustomerNames.normalize(null));
+    }
+
+    @Test
+    void searchNames_shouldIncludePartsAndBothFullNameOrders() {
+        assertEquals(List.of("mary", "ann", "okafor", "mary ann okafor", "okafor mary ann"),
+                CustomerNames.searchNames("Mary-Ann", "Okafor"));
+        assertEquals(List.of("okafor"), CustomerNames.searchNames(null, "Okafor"));
+    }
+
+    @Test
+    void prefixUpperBound_shouldBoundEveryStringWithThePrefix() {
+        String upper = CustomerNames.prefixUpperBound("jo");
+        assertEquals("jp", upper);
+        assertTrue("jozzz".compareTo(upper) < 0);
+    }
+}
@@ -0,0 +1,413 @@
+package com.afrisol.CustomerService.repository;
+
+import com.afrisol.CustomerService.exception.CustomerAlreadyExistsException;
+import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.model.CustomerEmail;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs every repository query against a mocked template standing in for a sharded topology, and checks that
+ * each query carries the shard key of the collection it reads, so mongos can target it instead of broadcasting.
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerRepositoryCustomImplTest {
+
+    private static final Map<Class<?>, String> SHARD_KEYS = Map.of(
+            Customer.class, "_id",
+            CustomerEmail.class, "_id");
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private CustomerRepositoryCustomImpl customerRepository;
+
+    private Customer customer;
+    private CustomerEmail claim;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setCustomerId("65f1c0ffee0000000000abcd");
+        customer.setFirstName("John");
+        customer.setEmail("test@test.com");
+        customer.setVersion(1L);
+        claim = new CustomerEmail("test@test.com", customer.getCustomerId());
+    }
+
+    @AfterEach
+    void everyQueryTargetsTheShardKey() {
+        for (Class<?> type : SHARD_KEYS.keySet()) {
+            assertSingleShard(type, capture(type));
+        }
+    }
+
+    @Test
+    void findByEmail_shouldResolveThroughClaim() {
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class))).thenReturn(Mono.just(claim));
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(customer));
+
+        StepVerifier.create(customerRepository.findByEmail("Test@Test.com"))
+                .expectNext(customer)
+                .verifyComplete();
+    }
+
+    @Test
+    void findByEmail_whenNotClaimed_shouldCompleteEmpty() {
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(customerRepository.findByEmail("missing@test.com"))
+                .verifyComplete();
+        verify(mongoTemplate, Mockito.never()).findOne(Mockito.any(Query.class), Mockito.eq(Customer.class));
+    }
+
+    @Test
+    void existsByEmail_shouldCheckClaimAndItsCustomer() {
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class))).thenReturn(Mono.just(claim));
+        when(mongoTemplate.exists(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(customerRepository.existsByEmail("test@test.com"))
+                .expectNext(true)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).exists(query.capture(), Mockito.eq(Customer.class));
+        assertSingleShard(Customer.class, query.getAllValues());
+        assertEquals(customer.getCustomerId(), query.getValue().getQueryObject().get("_id"));
+    }
+
+    @Test
+    void existsByEmail_whenClaimOrphaned_shouldReturnFalse() {
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class))).thenReturn(Mono.just(claim));
+        when(mongoTemplate.exists(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(false));
+
+        StepVerifier.create(customerRepository.existsByEmail("test@test.com"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void existsByEmail_whenNotClaimed_shouldReturnFalse() {
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(customerRepository.existsByEmail("missing@test.com"))
+                .expectNext(false)
+                .verifyComplete();
+        verify(mongoTemplate, Mockito.never()).exists(Mockito.any(Query.class), Mockito.eq(Customer.class));
+    }
+
+    @Test
+    void findByEmailIn_shouldResolveClaimsThenCustomers() {
+        when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class))).thenReturn(Flux.just(claim));
+        when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Flux.just(customer));
+
+        StepVerifier.create(customerRepository.findByEmailIn(List.of("test@test.com", "missing@test.com")))
+                .expectNext(customer)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> claims = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Query> customers = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(claims.capture(), Mockito.eq(CustomerEmail.class));
+        verify(mongoTemplate).find(customers.capture(), Mockito.eq(Customer.class));
+        assertSingleShard(CustomerEmail.class, claims.getAllValues());
+        assertSingleShard(Customer.class, customers.getAllValues());
+    }
+
+    @Test
+    void findVersionByEmail_shouldProjectVersionOnly() {
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class))).thenReturn(Mono.just(claim));
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(customer));
+
+        StepVerifier.create(customerRepository.findVersionByEmail("test@test.com"))
+                .expectNext(customer)
+                .verifyComplete();
+
+        assertEquals(new Document("version", 1), capture(Customer.class).get(0).getFieldsObject());
+    }
+
+    @Test
+    void save_whenNew_shouldInsertCustomerBeforeClaimingEmail() {
+        customer.setCustomerId(null);
+        customer.setEmail("New@Test.com");
+        when(mongoTemplate.insert(Mockito.any(CustomerEmail.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.insert(Mockito.any(Customer.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(customerRepository.save(customer))
+                .expectNextMatches(saved -> saved.getCustomerId() != null)
+                .verifyComplete();
+
+        ArgumentCaptor<Object> inserted = ArgumentCaptor.forClass(Object.class);
+        verify(mongoTemplate, Mockito.times(2)).insert(inserted.capture());
+        assertEquals(List.of("john"), ((Customer) inserted.getAllValues().get(0)).getSearchNames());
+        CustomerEmail claimed = (CustomerEmail) inserted.getAllValues().get(1);
+        assertEquals("new@test.com", claimed.getEmail());
+        assertEquals(customer.getCustomerId(), claimed.getCustomerId());
+    }
+
+    @Test
+    void save_whenEmailClaimedByAnotherCustomer_shouldRemoveCustomerAndThrowCustomerAlreadyExists() {
+        customer.setCustomerId(null);
+        when(mongoTemplate.insert(Mockito.any(Customer.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.insert(Mockito.any(CustomerEmail.class))).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class)))
+                .thenReturn(Mono.just(new CustomerEmail("test@test.com", "anotherId")));
+        when(mongoTemplate.exists(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(true));
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(Customer.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(customerRepository.save(customer))
+                .expectError(CustomerAlreadyExistsException.class)
+                .verify();
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), Mockito.eq(Customer.class));
+        assertEquals(customer.getCustomerId(), removed.getValue().getQueryObject().get("_id"));
+        verify(mongoTemplate, Mockito.never())
+                .updateFirst(Mockito.any(Query.class), Mockito.any(Update.class), Mockito.eq(CustomerEmail.class));
+    }
+
+    @Test
+    void save_whenEmailClaimOrphaned_shouldTakeClaimOver() {
+        customer.setCustomerId(null);
+        when(mongoTemplate.insert(Mockito.any(Customer.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.insert(Mockito.any(CustomerEmail.class))).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class)))
+                .thenReturn(Mono.just(new CustomerEmail("test@test.com", "goneId")));
+        when(mongoTemplate.exists(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(false));
+        when(mongoTemplate.updateFirst(Mockito.any(Query.class), Mockito.any(Update.class), Mockito.eq(CustomerEmail.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(customerRepository.save(customer))
+                .expectNext(customer)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> taken = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(taken.capture(), update.capture(), Mockito.eq(CustomerEmail.class));
+        assertSingleShard(CustomerEmail.class, taken.getAllValues());
+        assertEquals("goneId", taken.getValue().getQueryObject().get("customerId"));
+        assertEquals(customer.getCustomerId(), update.getValue().getUpdateObject().get("$set", Document.class).get("customerId"));
+        verify(mongoTemplate, Mockito.never()).remove(Mockito.any(Query.class), Mockito.eq(Customer.class));
+    }
+
+    @Test
+    void saveAll_shouldSaveEachCustomerWithItsClaim() {
+        Customer other = Customer.builder().firstName("Jane").email("jane@test.com").build();
+        customer.setCustomerId(null);
+        when(mongoTemplate.insert(Mockito.any(Customer.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.insert(Mockito.any(CustomerEmail.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(customerRepository.saveAll(List.of(customer, other)))
+                .expectNext(customer, other)
+                .verifyComplete();
+
+        verify(mongoTemplate, Mockito.times(2)).insert(Mockito.any(CustomerEmail.class));
+    }
+
+    @Test
+    void save_whenEmailChanges_shouldMoveClaim() {
+        Customer stored = Customer.builder().customerId(customer.getCustomerId()).email("old@test.com").build();
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(stored));
+        when(mongoTemplate.insert(Mockito.any(CustomerEmail.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.save(Mockito.any(Customer.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(customerRepository.save(customer))
+                .expectNext(customer)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> released = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(released.capture(), Mockito.eq(CustomerEmail.class));
+        assertEquals("old@test.com", released.getValue().getQueryObject().get("_id"));
+        assertSingleShard(CustomerEmail.class, released.getAllValues());
+    }
+
+    @Test
+    void findById_shouldOnlyReturnActiveCustomers() {
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(customer));
+
+        StepVerifier.create(customerRepository.findById(customer.getCustomerId()))
+                .expectNext(customer)
+                .verifyComplete();
+
+        assertEquals(new Document("$type", 10), capture(Customer.class).get(0).getQueryObject().get("deletedAt"));
+    }
+
+    @Test
+    void existsById_shouldOnlyCountActiveCustomers() {
+        when(mongoTemplate.exists(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(false));
+
+        StepVerifier.create(customerRepository.existsById(Mono.just(customer.getCustomerId())))
+                .expectNext(false)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).exists(query.capture(), Mockito.eq(Customer.class));
+        assertSingleShard(Customer.class, query.getAllValues());
+        assertEquals(new Document("$type", 10), query.getValue().getQueryObject().get("deletedAt"));
+    }
+
+    @Test
+    void count_shouldOnlyCountActiveCustomers() {
+        when(mongoTemplate.count(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(customerRepository.count())
+                .expectNext(3L)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).count(query.capture(), Mockito.eq(Customer.class));
+        assertEquals(new Document("$type", 10), query.getValue().getQueryObject().get("deletedAt"));
+    }
+
+    @Test
+    void softDelete_shouldMarkCustomerDeletedAndReleaseClaim() {
+        when(mongoTemplate.updateFirst(Mockito.any(Query.class), Mockito.any(Update.class), Mockito.eq(Customer.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(customerRepository.softDelete(customer))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> marked = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(marked.capture(), update.capture(), Mockito.eq(Customer.class));
+        assertSingleShard(Customer.class, marked.getAllValues());
+        assertEquals(1L, marked.getValue().getQueryObject().get("version"));
+        assertTrue(update.getValue().getUpdateObject().get("$set", Document.class).containsKey("deletedAt"));
+        verify(mongoTemplate, Mockito.never()).remove(Mockito.any(Query.class), Mockito.eq(Customer.class));
+    }
+
+    @Test
+    void softDelete_whenVersionChanged_shouldFailAndKeepClaim() {
+        when(mongoTemplate.updateFirst(Mockito.any(Query.class), Mockito.any(Update.class), Mockito.eq(Customer.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+
+        StepVerifier.create(customerRepository.softDelete(customer))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        verify(mongoTemplate, Mockito.never()).remove(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class));
+    }
+
+    @Test
+    void delete_shouldRemoveCustomerAndReleaseClaim() {
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(Customer.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(customerRepository.delete(customer))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), Mockito.eq(Customer.class));
+        assertSingleShard(Customer.class, removed.getAllValues());
+    }
+
+    @Test
+    void delete_whenVersionChanged_shouldFailAndKeepClaim() {
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(Customer.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(0)));
+
+        StepVerifier.create(customerRepository.delete(customer))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        verify(mongoTemplate, Mockito.never()).remove(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class));
+    }
+
+    @Test
+    void delete_withoutVersion_whenAlreadyGone_shouldComplete() {
+        customer.setVersion(null);
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(Customer.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(0)));
+
+        StepVerifier.create(customerRepository.delete(customer))
+                .verifyComplete();
+
+        verify(mongoTemplate, Mockito.never()).remove(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class));
+    }
+
+    @Test
+    void deleteById_shouldRemoveCustomerAndReleaseClaim() {
+        Customer stored = Customer.builder().customerId(customer.getCustomerId()).email("test@test.com").build();
+        when(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(Customer.class))).thenReturn(Mono.just(stored));
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(Customer.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(customerRepository.deleteById(customer.getCustomerId()))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> released = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(released.capture(), Mockito.eq(CustomerEmail.class));
+        assertEquals("test@test.com", released.getValue().getQueryObject().get("_id"));
+    }
+
+    @Test
+    void deleteAll_shouldRemoveCustomersThenClaims() {
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(Customer.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(2)));
+        when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(2)));
+
+        StepVerifier.create(customerRepository.deleteAll())
+                .verifyComplete();
+
+        InOrder order = Mockito.inOrder(mongoTemplate);
+        order.verify(mongoTemplate).remove(Mockito.any(Query.class), Mockito.eq(Customer.class));
+        order.verify(mongoTemplate).remove(Mockito.any(Query.class), Mockito.eq(CustomerEmail.class));
+    }
+
+    private List<Query> capture(Class<?> type) {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, Mockito.atLeast(0)).findOne(queries.capture(), Mockito.eq(type));
+        return queries.getAllValues();
+    }
+
+    private static void assertSingleShard(Class<?> type, List<Query> queries) {
+        String shardKey = SHARD_KEYS.get(type);
+        for (Query query : queries) {
+            Object key = query.getQueryObject().get(shardKey);
+            assertNotNull(key, "Query on " + type.getSimpleName() + " does not filter on shard key: " + query);
+            if (key instanceof Document operator) {
+                assertTrue(Set.of("$in").containsAll(operator.keySet()),
+                        "Query on " + type.getSimpleName() + " does not target shard key values: " + query);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.afrisol.CustomerService.repository;
+
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RepositoryResilienceTest {
+
+    private RepositoryResilienceProperties properties;
+    private CircuitBreaker circuitBreaker;
+    private SimpleMeterRegistry meterRegistry;
+    private RepositoryResilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RepositoryResilienceProperties();
+        properties.setReadTimeout(Duration.ofMillis(200));
+        properties.setWriteTimeout(Duration.ofMillis(200));
+        properties.setMinBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(5));
+        circuitBreaker = CircuitBreaker.of("test", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .build());
+        meterRegistry = new SimpleMeterRegistry();
+        resilience = new RepositoryResilience(properties, circuitBreaker, meterRegistry);
+    }
+
+    @Test
+    void read_whenTransientFailure_shouldRetryAndSucceed() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.error(new DataAccessResourceFailureException("socket", socketFailure()))
+                : Mono.just("customer"));
+
+        StepVerifier.create(resilience.decorate("findById", call))
+                .expectNext("customer")
+                .verifyComplete();
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void read_whenSlow_shouldTimeOutAfterAllAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.never();
+        });
+
+        StepVerifier.create(resilience.decorate("findByEmail", call))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(properties.getMaxAttempts(), attempts.get());
+    }
+
+    @Test
+    void write_whenTimedOut_shouldNotRetry() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.never();
+        });
+
+        StepVerifier.create(resilience.decorate("save", call))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void read_whenFailingAfterFirstElement_shouldNotReplayElements() {
+        AtomicInteger attempts = new AtomicInteger();
+        Flux<String> call = Flux.defer(() -> {
+            attempts.incrementAndGet();
+            return Flux.just("first").concatWith(Flux.error(new DataAccessResourceFailureException("socket", socketFailure())));
+        });
+
+        StepVerifier.create(resilience.decorate("findAll", call))
+                .expectNext("first")
+                .expectError(DataAccessResourceFailureException.class)
+                .verify();
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void whenBreakerOpens_shouldFailFastAndCountTransition() {
+        properties.setMaxAttempts(1);
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(resilience.decorate("findById", Mono.error(new DataAccessResourceFailureException("down"))))
+                    .expectError(DataAccessResourceFailureException.class)
+                    .verify();
+        }
+
+        AtomicInteger attempts = new AtomicInteger();
+        StepVerifier.create(resilience.decorate("findById", Mono.fromCallable(attempts::incrementAndGet)))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+        assertEquals(0, attempts.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, meterRegistry.counter("customer.repository.circuitbreaker.transitions",
+                "name", "test", "from", "CLOSED", "to", "OPEN").count());
+    }
+
+    private static MongoSocketReadException socketFailure() {
+        return new MongoSocketReadException("connection reset", new ServerAddress());
+    }
+}
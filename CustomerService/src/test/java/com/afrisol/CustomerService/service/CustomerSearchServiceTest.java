@@ -0,0 +1,131 @@
+package com.afrisol.CustomerService.service;
+
+import com.afrisol.CustomerService.dto.CustomerResponseDto;
+import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.repository.CustomerNames;
+import com.afrisol.CustomerService.repository.CustomerSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerSearchServiceTest {
+    @Mock
+    private CustomerSearchRepository searchRepository;
+
+    private CustomerSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new CustomerSearchServiceImpl(searchRepository, Duration.ofMillis(300), 16, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void searchCustomers_shouldRankExactBeforePrefixMatches() {
+        when(searchRepository.findByNamePrefix("john", CustomerSearchServiceImpl.CANDIDATE_LIMIT))
+                .thenReturn(Flux.just(customer("1", "Johnny", "Cash"), customer("2", "John", "Doe")));
+
+        StepVerifier.create(searchService.searchCustomers("  JOHN ", 2, "requestID").map(CustomerResponseDto::getCustomerId))
+                .expectNext("2", "1")
+                .verifyComplete();
+    }
+
+    @Test
+    void searchCustomers_whenFewPrefixMatches_shouldAddNearMisses() {
+        when(searchRepository.findByNamePrefix("jonh", CustomerSearchServiceImpl.CANDIDATE_LIMIT)).thenReturn(Flux.empty());
+        when(searchRepository.findByNamePrefix("jo", CustomerSearchServiceImpl.CANDIDATE_LIMIT))
+                .thenReturn(Flux.just(customer("1", "John", "Smith"), customer("2", "Joseph", "Banda")));
+
+        StepVerifier.create(searchService.searchCustomers("jonh", 10, "requestID").map(CustomerResponseDto::getCustomerId))
+                .expectNext("1")
+                .verifyComplete();
+    }
+
+    @Test
+    void searchCustomers_whenShortPrefixIsCrowded_shouldNarrowToLongerPrefix() {
+        Customer[] crowd = IntStream.range(0, CustomerSearchServiceImpl.CANDIDATE_LIMIT)
+                .mapToObj(i -> customer("crowd" + i, "Joseph", "Banda"))
+                .toArray(Customer[]::new);
+        when(searchRepository.findByNamePrefix("jonh", CustomerSearchServiceImpl.CANDIDATE_LIMIT)).thenReturn(Flux.empty());
+        when(searchRepository.findByNamePrefix("jo", CustomerSearchServiceImpl.CANDIDATE_LIMIT)).thenReturn(Flux.just(crowd));
+        when(searchRepository.findByNamePrefix("jon", CustomerSearchServiceImpl.CANDIDATE_LIMIT))
+                .thenReturn(Flux.just(customer("1", "John", "Smith")));
+
+        StepVerifier.create(searchService.searchCustomers("jonh", 10, "requestID").map(CustomerResponseDto::getCustomerId))
+                .expectNext("1")
+                .verifyComplete();
+    }
+
+    @Test
+    void searchCustomers_whenFuzzyStageFails_shouldStillReturnPrefixMatches() {
+        when(searchRepository.findByNamePrefix("smith", CustomerSearchServiceImpl.CANDIDATE_LIMIT))
+                .thenReturn(Flux.just(customer("1", "Jane", "Smith")));
+        when(searchRepository.findByNamePrefix("sm", CustomerSearchServiceImpl.CANDIDATE_LIMIT))
+                .thenReturn(Flux.error(new QueryTimeoutException("operation exceeded time limit")));
+
+        StepVerifier.create(searchService.searchCustomers("smith", 10, "requestID").map(CustomerResponseDto::getCustomerId))
+                .expectNext("1")
+                .verifyComplete();
+    }
+
+    @Test
+    void searchCustomers_whenHotQueryRepeats_shouldServeFromCache() {
+        when(searchRepository.findByNamePrefix("doe", CustomerSearchServiceImpl.CANDIDATE_LIMIT))
+                .thenReturn(Flux.just(customer("1", "John", "Doe")));
+
+        StepVerifier.create(searchService.searchCustomers("doe", 1, "requestID")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(searchService.searchCustomers("Doe", 1, "requestID")).expectNextCount(1).verifyComplete();
+
+        verify(searchRepository, Mockito.times(1)).findByNamePrefix("doe", CustomerSearchServiceImpl.CANDIDATE_LIMIT);
+    }
+
+    @Test
+    void searchCustomers_whenOverBudget_shouldTimeOut() {
+        when(searchRepository.findByNamePrefix("john", CustomerSearchServiceImpl.CANDIDATE_LIMIT)).thenReturn(Flux.never());
+
+        StepVerifier.create(searchService.searchCustomers("john", 10, "requestID"))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void searchCustomers_whenQueryTooShort_shouldFail() {
+        StepVerifier.create(searchService.searchCustomers("J.", 10, "requestID"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(searchService.searchCustomers("john", CustomerSearchServiceImpl.MAX_LIMIT + 1, "requestID"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void prefixEditDistance_shouldCountSwapsAsOneEdit() {
+        assertEquals(0, CustomerSearchServiceImpl.prefixEditDistance("jo", "johnson"));
+        assertEquals(1, CustomerSearchServiceImpl.prefixEditDistance("jhon", "john doe"));
+        assertEquals(1, CustomerSearchServiceImpl.prefixEditDistance("jon", "john"));
+        assertEquals(3, CustomerSearchServiceImpl.prefixEditDistance("xyz", "john"));
+    }
+
+    private static Customer customer(String id, String firstName, String lastName) {
+        return Customer.builder()
+                .customerId(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .searchNames(CustomerNames.searchNames(firstName, lastName))
+                .build();
+    }
+}
@@ -1,18 +1,24 @@
 package com.afrisol.CustomerService.service;
 
+import com.afrisol.CustomerService.audit.CustomerAuditTrail;
+import com.afrisol.CustomerService.dto.CustomerLookupRequestDto;
 import com.afrisol.CustomerService.dto.CustomerRequestDto;
 import com.afrisol.CustomerService.dto.CustomerResponseDto;
 import com.afrisol.CustomerService.exception.CustomException;
 import com.afrisol.CustomerService.exception.CustomerNotFoundException;
 import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.model.CustomerAuditAction;
+import com.afrisol.CustomerService.model.CustomerAuditRecord;
 import com.afrisol.CustomerService.repository.CustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
@@ -22,8 +28,11 @@ import reactor.test.StepVerifier;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeoutException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +40,8 @@ import static org.mockito.Mockito.when;
 class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
+    @Mock
+    private CustomerAuditTrail auditTrail;
 
     @InjectMocks
     private CustomerServiceImpl customerService;
@@ -150,6 +161,16 @@ class CustomerServiceTest {
         Mockito.verify(customerRepository, Mockito.times(1)).findByEmail(customerDto.getEmail());
     }
 
+    @Test
+    void getCustomer_whenStoreTimesOut_shouldPassTimeoutOnUnwrapped() {
+        when(customerRepository.findByEmail(customerDto.getEmail()))
+                .thenReturn(Mono.error(new TimeoutException("Did not observe any item or terminal signal within 2000ms")));
+
+        StepVerifier.create(customerService.getCustomer(customerDto.getEmail(), requestID))
+                .expectError(TimeoutException.class)
+                .verify();
+    }
+
     @Test
     void getCustomer_whenEmailIsNull_shouldThrowCustomException() {
         // Arrange
@@ -189,6 +210,42 @@ class CustomerServiceTest {
 
     }
 
+    @Test
+    void lookupCustomers_shouldReturnResultsInRequestOrderWithNotFoundMarkers() {
+        when(customerRepository.findAllById(Mockito.<Iterable<String>>any())).thenReturn(Flux.just(customer2, customer));
+        when(customerRepository.findByEmailIn(Mockito.anyCollection())).thenReturn(Flux.just(customer2));
+
+        CustomerLookupRequestDto lookupDto = CustomerLookupRequestDto.builder()
+                .ids(List.of("testId", "missingId", "testId2"))
+                .emails(List.of("RICHE@test.com", " riche@test.com ", "missing@test.com"))
+                .build();
+
+        StepVerifier.create(customerService.lookupCustomers(lookupDto, requestID))
+                .expectNextMatches(result -> result.getKey().equals("testId") && result.isFound()
+                        && result.getCustomer().getFirstName().equals("John"))
+                .expectNextMatches(result -> result.getKey().equals("missingId") && !result.isFound()
+                        && result.getCustomer() == null)
+                .expectNextMatches(result -> result.getKey().equals("testId2") && result.isFound())
+                .expectNextMatches(result -> result.getKey().equals("RICHE@test.com") && result.isFound())
+                .expectNextMatches(result -> result.getKey().equals(" riche@test.com ") && result.isFound())
+                .expectNextMatches(result -> result.getKey().equals("missing@test.com") && !result.isFound())
+                .verifyComplete();
+        verify(customerRepository, Mockito.times(1)).findAllById(Mockito.<Iterable<String>>any());
+        verify(customerRepository, Mockito.times(1)).findByEmailIn(Set.of("riche@test.com", "missing@test.com"));
+    }
+
+    @Test
+    void lookupCustomers_whenTooManyKeys_shouldThrowIllegalArgumentException() {
+        List<String> ids = java.util.stream.IntStream.rangeClosed(0, CustomerServiceImpl.LOOKUP_MAX_KEYS)
+                .mapToObj(i -> "id" + i)
+                .toList();
+
+        StepVerifier.create(customerService.lookupCustomers(CustomerLookupRequestDto.builder().ids(ids).build(), requestID))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verify(customerRepository, Mockito.never()).findAllById(Mockito.<Iterable<String>>any());
+    }
+
     @Test
     void updateCustomer_whenCustomerExists_shouldReturnUpdatedCustomer() {
         when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
@@ -205,6 +262,48 @@ class CustomerServiceTest {
         verify(customerRepository, Mockito.times(1)).save(Mockito.any(Customer.class));
     }
 
+    @Test
+    void updateCustomer_shouldRecordChangedFieldsInAuditTrail() {
+        customer.setVersion(3L);
+        when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
+        when(customerRepository.save(Mockito.any(Customer.class))).thenAnswer(invocation -> {
+            Customer saved = invocation.getArgument(0);
+            saved.setVersion(4L);
+            return Mono.just(saved);
+        });
+        customerDto.setFirstName("Johnny");
+        customerDto.setPhone("testPhone");
+
+        StepVerifier.create(customerService.updateCustomer(customerDto, "testId", requestID))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ArgumentCaptor<CustomerAuditRecord> recorded = ArgumentCaptor.forClass(CustomerAuditRecord.class);
+        verify(auditTrail).record(recorded.capture());
+        CustomerAuditRecord record = recorded.getValue();
+        assertEquals(CustomerAuditAction.UPDATED, record.getAction());
+        assertEquals("testId", record.getCustomerId());
+        assertEquals(4L, record.getVersion().longValue());
+        assertEquals(requestID, record.getRequestID());
+        assertEquals(1, record.getChanges().size());
+        assertEquals("firstName", record.getChanges().get(0).getField());
+        assertEquals("John", record.getChanges().get(0).getBefore());
+        assertEquals("Johnny", record.getChanges().get(0).getAfter());
+    }
+
+    @Test
+    void updateCustomer_whenNothingChanged_shouldNotRecordInAuditTrail() {
+        when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
+        when(customerRepository.save(Mockito.any(Customer.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        customerDto.setPhone("testPhone");
+
+        StepVerifier.create(customerService.updateCustomer(customerDto, "testId", requestID))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(auditTrail, Mockito.never()).record(Mockito.any());
+    }
+
     @Test
     void updateCustomer_whenCustomerNotFound_shouldThrowCustomerNotFoundException() {
         when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.empty());
@@ -242,16 +341,99 @@ class CustomerServiceTest {
         verify(customerRepository, Mockito.times(1)).findById("testId");
     }
 
+    @Test
+    void getCustomerVersion_whenCustomerExists_shouldReturnVersion() {
+        customer.setVersion(5L);
+        when(customerRepository.findVersionByEmail("test@test.com")).thenReturn(Mono.just(customer));
+
+        StepVerifier.create(customerService.getCustomerVersion("Test@Test.com", requestID))
+                .expectNext(5L)
+                .verifyComplete();
+    }
+
+    @Test
+    void updateCustomer_whenExpectedVersionIsStale_shouldFailWithPreconditionFailed() {
+        customer.setVersion(2L);
+        when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
+
+        StepVerifier.create(customerService.updateCustomer(customerDto, "testId", 1L, requestID))
+                .expectErrorMatches(throwable -> throwable instanceof CustomException &&
+                        ((CustomException) throwable).getStatus() == HttpStatus.PRECONDITION_FAILED)
+                .verify();
+
+        verify(customerRepository, Mockito.never()).save(Mockito.any(Customer.class));
+    }
+
+    @Test
+    void updateCustomer_whenConcurrentlyModifiedWithIfMatch_shouldFailWithPreconditionFailed() {
+        customer.setVersion(2L);
+        when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
+        when(customerRepository.save(Mockito.any(Customer.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("version changed")));
+
+        StepVerifier.create(customerService.updateCustomer(customerDto, "testId", 2L, requestID))
+                .expectErrorMatches(throwable -> throwable instanceof CustomException &&
+                        ((CustomException) throwable).getStatus() == HttpStatus.PRECONDITION_FAILED)
+                .verify();
+
+        verify(customerRepository, Mockito.times(1)).save(Mockito.any(Customer.class));
+    }
+
+    @Test
+    void updateCustomer_whenConcurrentlyModifiedWithoutIfMatch_shouldRetryOnFreshCopy() {
+        when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
+        when(customerRepository.save(Mockito.any(Customer.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("version changed")))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(customerService.updateCustomer(customerDto, "testId", requestID))
+                .expectNextMatches(response -> response.getFirstName().equals(customerDto.getFirstName()))
+                .verifyComplete();
+
+        verify(customerRepository, Mockito.times(2)).findById("testId");
+        verify(customerRepository, Mockito.times(2)).save(Mockito.any(Customer.class));
+    }
+
+    @Test
+    void updateCustomer_whenConflictsPersistWithoutIfMatch_shouldFailWithConflict() {
+        when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
+        when(customerRepository.save(Mockito.any(Customer.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("version changed")));
+
+        StepVerifier.create(customerService.updateCustomer(customerDto, "testId", requestID))
+                .expectErrorMatches(throwable -> throwable instanceof CustomException &&
+                        ((CustomException) throwable).getStatus() == HttpStatus.CONFLICT)
+                .verify();
+
+        verify(customerRepository, Mockito.times(CustomerServiceImpl.WRITE_ATTEMPTS)).save(Mockito.any(Customer.class));
+        verify(auditTrail, Mockito.never()).record(Mockito.any());
+    }
+
+    @Test
+    void deleteCustomer_whenExpectedVersionIsStale_shouldFailWithPreconditionFailed() {
+        customer.setVersion(2L);
+        when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
+
+        StepVerifier.create(customerService.deleteCustomer("testId", 1L, requestID))
+                .expectErrorMatches(throwable -> throwable instanceof CustomException &&
+                        ((CustomException) throwable).getStatus() == HttpStatus.PRECONDITION_FAILED)
+                .verify();
+
+        verify(customerRepository, Mockito.never()).softDelete(Mockito.any(Customer.class));
+    }
+
     @Test
     void deleteCustomer_whenCustomerExists_shouldReturnVoid() {
         when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
-        when(customerRepository.delete(Mockito.any(Customer.class))).thenReturn(Mono.empty());
+        when(customerRepository.softDelete(Mockito.any(Customer.class))).thenReturn(Mono.empty());
 
         StepVerifier.create(customerService.deleteCustomer("testId", requestID))
                 .verifyComplete();
 
         verify(customerRepository, Mockito.times(1)).findById("testId");
-        verify(customerRepository, Mockito.times(1)).delete(Mockito.any(Customer.class));
+        verify(customerRepository, Mockito.times(1)).softDelete(Mockito.any(Customer.class));
+        verify(auditTrail).record(Mockito.argThat(record -> record.getAction() == CustomerAuditAction.DELETED
+                && record.getCustomerId().equals("testId")));
     }
 
     @Test
@@ -269,7 +451,7 @@ class CustomerServiceTest {
     @Test
     void deleteCustomer_whenDatabaseErrorOccurs_shouldThrowRuntimeException() {
         when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
-        when(customerRepository.delete(Mockito.any(Customer.class))).thenReturn(Mono.error(new RuntimeException("Database error")));
+        when(customerRepository.softDelete(Mockito.any(Customer.class))).thenReturn(Mono.error(new RuntimeException("Database error")));
 
         StepVerifier.create(customerService.deleteCustomer("testId", requestID))
                 .expectErrorMatches(throwable -> throwable instanceof RuntimeException &&
@@ -277,7 +459,51 @@ class CustomerServiceTest {
                 .verify();
 
         verify(customerRepository, Mockito.times(1)).findById("testId");
-        verify(customerRepository, Mockito.times(1)).delete(Mockito.any(Customer.class));
+        verify(customerRepository, Mockito.times(1)).softDelete(Mockito.any(Customer.class));
+        verify(auditTrail, Mockito.never()).record(Mockito.any());
     }
-}
 
+    @Test
+    void deleteCustomer_whenConcurrentlyModifiedWithIfMatch_shouldFailWithPreconditionFailed() {
+        customer.setVersion(2L);
+        when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
+        when(customerRepository.softDelete(Mockito.any(Customer.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("version changed")));
+
+        StepVerifier.create(customerService.deleteCustomer("testId", 2L, requestID))
+                .expectErrorMatches(throwable -> throwable instanceof CustomException &&
+                        ((CustomException) throwable).getStatus() == HttpStatus.PRECONDITION_FAILED)
+                .verify();
+
+        verify(customerRepository, Mockito.times(1)).softDelete(Mockito.any(Customer.class));
+        verify(customerRepository, Mockito.never()).delete(Mockito.any(Customer.class));
+    }
+
+    @Test
+    void deleteCustomer_whenConcurrentlyModifiedWithoutIfMatch_shouldRetryOnFreshCopy() {
+        when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
+        when(customerRepository.softDelete(Mockito.any(Customer.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("version changed")))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(customerService.deleteCustomer("testId", requestID))
+                .verifyComplete();
+
+        verify(customerRepository, Mockito.times(2)).softDelete(Mockito.any(Customer.class));
+        verify(auditTrail, Mockito.times(1)).record(Mockito.any());
+    }
+
+    @Test
+    void deleteCustomer_whenConflictsPersistWithoutIfMatch_shouldFailWithConflict() {
+        when(customerRepository.findById(Mockito.anyString())).thenReturn(Mono.just(customer));
+        when(customerRepository.softDelete(Mockito.any(Customer.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("version changed")));
+
+        StepVerifier.create(customerService.deleteCustomer("testId", requestID))
+                .expectErrorMatches(throwable -> throwable instanceof CustomException &&
+                        ((CustomException) throwable).getStatus() == HttpStatus.CONFLICT)
+                .verify();
+
+        verify(customerRepository, Mockito.times(CustomerServiceImpl.WRITE_ATTEMPTS)).softDelete(Mockito.any(Customer.class));
+    }
+}
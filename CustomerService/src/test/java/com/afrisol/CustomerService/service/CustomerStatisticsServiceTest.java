@@ -0,0 +1,122 @@
+package com.afrisol.CustomerService.service;
+
+import com.afrisol.CustomerService.dto.CustomerStatisticsDto;
+import com.afrisol.CustomerService.exception.CustomException;
+import com.afrisol.CustomerService.repository.CustomerStatisticsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStatisticsServiceTest {
+    @Mock
+    private CustomerStatisticsRepository statisticsRepository;
+
+    private CustomerStatisticsServiceImpl statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        statisticsService = new CustomerStatisticsServiceImpl(statisticsRepository, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void getStatistics_whenPrimed_shouldOnlyReadTheCache() {
+        CustomerStatisticsDto statistics = CustomerStatisticsDto.builder()
+                .totalCustomers(2)
+                .generatedAt(Instant.now())
+                .build();
+        when(statisticsRepository.aggregateStatistics()).thenReturn(Mono.just(statistics));
+
+        statisticsService.run(null);
+
+        StepVerifier.create(statisticsService.getStatistics("requestID"))
+                .expectNext(statistics)
+                .verifyComplete();
+        StepVerifier.create(statisticsService.getStatistics("requestID"))
+                .expectNext(statistics)
+                .verifyComplete();
+        verify(statisticsRepository, Mockito.times(1)).aggregateStatistics();
+    }
+
+    @Test
+    void getStatistics_whenNotPrimed_shouldFailWithServiceUnavailableWithoutAggregating() {
+        StepVerifier.create(statisticsService.getStatistics("requestID"))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getStatus() == HttpStatus.SERVICE_UNAVAILABLE)
+                .verify();
+
+        verify(statisticsRepository, never()).aggregateStatistics();
+    }
+
+    @Test
+    void refresh_shouldReplaceCachedStatistics() {
+        CustomerStatisticsDto stale = CustomerStatisticsDto.builder()
+                .totalCustomers(2)
+                .generatedAt(Instant.now().minus(Duration.ofHours(1)))
+                .build();
+        CustomerStatisticsDto fresh = CustomerStatisticsDto.builder()
+                .totalCustomers(3)
+                .generatedAt(Instant.now())
+                .build();
+        when(statisticsRepository.aggregateStatistics()).thenReturn(Mono.just(stale), Mono.just(fresh));
+        statisticsService.run(null);
+
+        StepVerifier.create(statisticsService.refresh())
+                .expectNext(fresh)
+                .verifyComplete();
+
+        StepVerifier.create(statisticsService.getStatistics("requestID"))
+                .expectNext(fresh)
+                .verifyComplete();
+    }
+
+    @Test
+    void refresh_whenAggregationFails_shouldKeepPreviousStatistics() {
+        CustomerStatisticsDto statistics = CustomerStatisticsDto.builder()
+                .totalCustomers(2)
+                .generatedAt(Instant.now())
+                .build();
+        when(statisticsRepository.aggregateStatistics())
+                .thenReturn(Mono.just(statistics), Mono.error(new RuntimeException("operation exceeded time limit")));
+        statisticsService.run(null);
+
+        StepVerifier.create(statisticsService.refresh())
+                .verifyComplete();
+
+        StepVerifier.create(statisticsService.getStatistics("requestID"))
+                .expectNext(statistics)
+                .verifyComplete();
+    }
+
+    @Test
+    void run_whenAggregationFails_shouldNotFailStartupAndPrimeOnNextRefresh() {
+        CustomerStatisticsDto statistics = CustomerStatisticsDto.builder()
+                .generatedAt(Instant.now())
+                .build();
+        when(statisticsRepository.aggregateStatistics())
+                .thenReturn(Mono.error(new RuntimeException("operation exceeded time limit")), Mono.just(statistics));
+
+        statisticsService.run(null);
+        StepVerifier.create(statisticsService.getStatistics("requestID"))
+                .expectError(CustomException.class)
+                .verify();
+
+        statisticsService.refresh().block();
+        StepVerifier.create(statisticsService.getStatistics("requestID"))
+                .expectNext(statistics)
+                .verifyComplete();
+    }
+}
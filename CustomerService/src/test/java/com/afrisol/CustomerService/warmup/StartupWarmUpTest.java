@@ -0,0 +1,164 @@
+package com.afrisol.CustomerService.warmup;
+
+import com.afrisol.CustomerService.model.Customer;
+import com.afrisol.CustomerService.repository.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StartupWarmUpTest {
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+    @Mock
+    private CustomerRepository customerRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private LoggingSystem loggingSystem;
+
+    private WarmUpProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MockEnvironment environment;
+    private List<ClientRequest> requests;
+    private HttpStatus updateStatus;
+    private StartupWarmUp startupWarmUp;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WarmUpProperties();
+        properties.setIterations(200);
+        properties.setSampleSize(20);
+        properties.setMongoConnections(4);
+        properties.setMaxDuration(Duration.ofSeconds(10));
+        meterRegistry = new SimpleMeterRegistry();
+        environment = new MockEnvironment().withProperty("local.server.port", "8080");
+        requests = new ArrayList<>();
+        updateStatus = HttpStatus.OK;
+        WebClient.Builder webClientBuilder = WebClient.builder().exchangeFunction(this::answer);
+        startupWarmUp = new StartupWarmUp(properties, mongoTemplate, customerRepository, webClientBuilder,
+                environment, eventPublisher, loggingSystem, meterRegistry);
+    }
+
+    @Test
+    void run_shouldRefuseTrafficThenOpenConnectionsAndReport() {
+        when(mongoTemplate.executeCommand(Mockito.anyString())).thenReturn(Mono.just(new Document("ok", 1)));
+        when(customerRepository.delete(Mockito.any(Customer.class))).thenReturn(Mono.empty());
+
+        startupWarmUp.run(null);
+
+        ArgumentCaptor<AvailabilityChangeEvent<?>> event = ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, event.getValue().getState());
+        verify(mongoTemplate, Mockito.times(4)).executeCommand("{ ping: 1 }");
+        assertEquals(1, meterRegistry.timer("customer.warmup.duration").count());
+        verify(loggingSystem).setLogLevel("com.afrisol.CustomerService.service", LogLevel.WARN);
+        verify(loggingSystem).setLogLevel("com.afrisol.CustomerService.service", null);
+    }
+
+    @Test
+    void exerciseRequestPaths_shouldSendEveryIterationOverHttpThenRemoveTheCustomer() {
+        when(customerRepository.delete(Mockito.any(Customer.class))).thenReturn(Mono.empty());
+
+        StartupWarmUp.WarmUpReport report = startupWarmUp.exerciseRequestPaths();
+
+        assertEquals(200, report.iterations());
+        assertEquals(1 + 200 * 5, requests.size());
+        assertTrue(requests.stream().allMatch(request -> request.url().toString().startsWith("http://localhost:8080/api/v1/customers")));
+        ArgumentCaptor<Customer> removed = ArgumentCaptor.forClass(Customer.class);
+        verify(customerRepository).delete(removed.capture());
+        assertEquals("warmup-customer", removed.getValue().getCustomerId());
+        assertTrue(removed.getValue().getEmail().endsWith(StartupWarmUp.WARM_UP_DOMAIN));
+    }
+
+    @Test
+    void exerciseRequestPaths_whenResponseIsUnexpected_shouldStopAndStillRemoveTheCustomer() {
+        updateStatus = HttpStatus.INTERNAL_SERVER_ERROR;
+        when(customerRepository.delete(Mockito.any(Customer.class))).thenReturn(Mono.empty());
+
+        StartupWarmUp.WarmUpReport report = startupWarmUp.exerciseRequestPaths();
+
+        assertEquals(0, report.iterations());
+        verify(customerRepository).delete(Mockito.any(Customer.class));
+    }
+
+    @Test
+    void exerciseRequestPaths_whenServerPortUnknown_shouldSkipTraffic() {
+        environment = new MockEnvironment();
+        startupWarmUp = new StartupWarmUp(properties, mongoTemplate, customerRepository,
+                WebClient.builder().exchangeFunction(this::answer), environment, eventPublisher, loggingSystem,
+                meterRegistry);
+
+        StartupWarmUp.WarmUpReport report = startupWarmUp.exerciseRequestPaths();
+
+        assertEquals(0, report.iterations());
+        assertTrue(requests.isEmpty());
+        verify(customerRepository, never()).delete(Mockito.any(Customer.class));
+    }
+
+    @Test
+    void openMongoConnections_whenMongoUnavailable_shouldNotFailStartup() {
+        properties.setMongoTimeout(Duration.ofMillis(100));
+        when(mongoTemplate.executeCommand(Mockito.anyString())).thenReturn(Mono.never());
+
+        assertEquals(0, startupWarmUp.openMongoConnections());
+    }
+
+    /**
+     * Stands in for the server: the first create succeeds and every later one finds the email taken.
+     */
+    private Mono<ClientResponse> answer(ClientRequest request) {
+        requests.add(request);
+        String path = request.url().getPath();
+        if (path.endsWith(":lookup")) {
+            return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        }
+        if (request.method() == HttpMethod.POST) {
+            if (requests.size() > 1) {
+                return Mono.just(ClientResponse.create(HttpStatus.CONFLICT).build());
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"customerId\":\"warmup-customer\",\"version\":0}")
+                    .build());
+        }
+        if (request.method() == HttpMethod.PUT) {
+            return Mono.just(ClientResponse.create(updateStatus).build());
+        }
+        if (request.headers().getIfNoneMatch().contains("\"0\"")) {
+            return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+        }
+        return Mono.just(ClientResponse.create(HttpStatus.OK).header(HttpHeaders.ETAG, "\"0\"").build());
+    }
+}